@@ -255,6 +255,27 @@ public class BuilderPattern {
                 return this;
             }
             
+            /**
+             * Start over for a new applicant: required fields are replaced and every optional
+             * field returns to its default. The documents list is cleared rather than replaced so
+             * a reused builder keeps its capacity.
+             */
+            public Builder reset(String applicantName, double requestedAmount) {
+                this.applicantName = validateApplicantName(applicantName);
+                this.requestedAmount = validateRequestedAmount(requestedAmount);
+                this.annualIncome = 0.0;
+                this.hasCreditHistory = false;
+                this.creditScore = 300;
+                this.employmentType = "Unknown";
+                this.employmentYears = 0;
+                this.downPayment = 0.0;
+                this.propertyType = "Primary Residence";
+                this.applicationDate = LocalDate.now();
+                this.documents.clear();
+                this.isFirstTimeBuyer = false;
+                return this;
+            }
+            
             /**
              * Build the final MortgageApplication instance.
              * Performs final validation before creation.
@@ -1,17 +1,76 @@
 package randomcode.patterns.creational;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.crypto.Cipher;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import randomcode.patterns.creational.BuilderPattern.MortgageApplication;
+
 /**
  * Object Pool Pattern – Creational Design Pattern
  * Optimizes performance and resource reuse by maintaining a pool of initialized objects.
@@ -21,6 +80,15 @@ import java.util.logging.Logger;
  */
 public class ObjectPoolPattern {
     private static final Logger logger = Logger.getLogger(ObjectPoolPattern.class.getName());
+    
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger sequence = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 
     /**
      * Poolable interface for objects that can be managed by the pool.
@@ -29,25 +97,121 @@ public class ObjectPoolPattern {
         void reset();
         boolean isValid();
         void close();
+        
+        /**
+         * Cheap liveness check used on the borrow path when full validation runs in the background.
+         */
+        default boolean isOpen() {
+            return isValid();
+        }
+        
+        /**
+         * How many times the object has been used; drives the least-used-first handout policy.
+         */
+        default int getUsageCount() {
+            return 0;
+        }
     }
 
+    /**
+     * Snapshot of a symbol's price as returned by a market data fetch.
+     */
+    public static final class MarketQuote {
+        private final String symbol;
+        private final double price;
+        private final long timestampMillis;
+        
+        public MarketQuote(String symbol, double price, long timestampMillis) {
+            this.symbol = Objects.requireNonNull(symbol, "Symbol cannot be null");
+            this.price = price;
+            this.timestampMillis = timestampMillis;
+        }
+        
+        public String getSymbol() { return symbol; }
+        public double getPrice() { return price; }
+        public long getTimestampMillis() { return timestampMillis; }
+        
+        @Override
+        public String toString() {
+            return String.format("%s@%.2f", symbol, price);
+        }
+    }
+    
+    /**
+     * Venue acknowledgement for a pipelined trade order.
+     */
+    public static final class TradeAck {
+        private final long orderId;
+        private final String symbol;
+        private final int quantity;
+        private final double price;
+        private final long ackTimestampMillis;
+        
+        public TradeAck(long orderId, String symbol, int quantity, double price, long ackTimestampMillis) {
+            this.orderId = orderId;
+            this.symbol = Objects.requireNonNull(symbol, "Symbol cannot be null");
+            this.quantity = quantity;
+            this.price = price;
+            this.ackTimestampMillis = ackTimestampMillis;
+        }
+        
+        public long getOrderId() { return orderId; }
+        public String getSymbol() { return symbol; }
+        public int getQuantity() { return quantity; }
+        public double getPrice() { return price; }
+        public long getAckTimestampMillis() { return ackTimestampMillis; }
+        
+        @Override
+        public String toString() {
+            return String.format("Ack[#%d %d %s @ $%.2f]", orderId, quantity, symbol, price);
+        }
+    }
+    
     /**
      * Market connection object that represents an expensive resource.
      */
     public static class MarketConnection implements Poolable {
+        /** Maximum number of symbol requests pipelined into a single round trip. */
+        public static final int MAX_PIPELINE_DEPTH = 500;
+        /** Default number of trade orders that may await acknowledgement at once. */
+        public static final int DEFAULT_ORDER_WINDOW = 16;
+        
+        private static final long IDLE_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(30);
+        
+        // Simulated venue: acknowledgements arrive on one shared timer, not a thread per order,
+        // and are completed on the submitter's executor so callbacks never run on the timer
+        private static final ScheduledExecutorService ACK_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("market-ack"));
+        
         private final UUID connectionId;
         private final String marketEndpoint;
-        private final LocalDateTime createdAt;
-        private LocalDateTime lastUsed;
+        private final long createdAtMillis;
+        private volatile long lastUsedMillis;
         private final AtomicInteger usageCount;
         private final AtomicBoolean isConnected;
         private volatile boolean isValid;
+        private final int orderWindowSize;
+        private final Semaphore orderWindow;
+        private final AtomicLong orderSequence;
         
         public MarketConnection(String marketEndpoint) {
+            this(marketEndpoint, DEFAULT_ORDER_WINDOW);
+        }
+        
+        /**
+         * Create a connection allowing up to {@code orderWindowSize} unacknowledged trade orders.
+         */
+        public MarketConnection(String marketEndpoint, int orderWindowSize) {
+            if (orderWindowSize <= 0) {
+                throw new IllegalArgumentException("Order window must be positive");
+            }
+            this.orderWindowSize = orderWindowSize;
+            this.orderWindow = new Semaphore(orderWindowSize);
+            this.orderSequence = new AtomicLong(0);
             this.connectionId = UUID.randomUUID();
             this.marketEndpoint = Objects.requireNonNull(marketEndpoint, "Market endpoint cannot be null");
-            this.createdAt = LocalDateTime.now();
-            this.lastUsed = LocalDateTime.now();
+            this.createdAtMillis = System.currentTimeMillis();
+            this.lastUsedMillis = createdAtMillis;
             this.usageCount = new AtomicInteger(0);
             this.isConnected = new AtomicBoolean(false);
             this.isValid = true;
@@ -87,7 +251,7 @@ public class ObjectPoolPattern {
             }
             
             usageCount.incrementAndGet();
-            lastUsed = LocalDateTime.now();
+            lastUsedMillis = System.currentTimeMillis();
             
             // Simulate market data fetching
             try {
@@ -104,6 +268,65 @@ public class ObjectPoolPattern {
             }
         }
         
+        /**
+         * Fetch market data for many symbols over this one connection.
+         * 
+         * Requests are pipelined: up to {@link #MAX_PIPELINE_DEPTH} symbols are written before
+         * reading any response, so each group costs a single round trip instead of one per
+         * symbol. Each round trip counts as one use of the connection.
+         * 
+         * @return quotes keyed by symbol, in request order
+         */
+        public Map<String, MarketQuote> fetchMarketData(Collection<String> symbols) {
+            Objects.requireNonNull(symbols, "Symbols cannot be null");
+            if (!isValid || !isConnected.get()) {
+                throw new IllegalStateException("Connection is not valid or not connected");
+            }
+            
+            Map<String, MarketQuote> quotes = new LinkedHashMap<>(Math.max(16, symbols.size() * 2));
+            List<String> inFlight = new ArrayList<>(Math.min(symbols.size(), MAX_PIPELINE_DEPTH));
+            for (String symbol : symbols) {
+                inFlight.add(symbol);
+                if (inFlight.size() == MAX_PIPELINE_DEPTH && !completeRoundTrip(inFlight, quotes)) {
+                    return quotes;
+                }
+            }
+            if (!inFlight.isEmpty()) {
+                completeRoundTrip(inFlight, quotes);
+            }
+            
+            if (logger.isLoggable(Level.INFO)) {
+                logger.info(() -> String.format("Fetched data for %d symbols via connection %s (usage: %d)", 
+                    quotes.size(), connectionId.toString().substring(0, 8), usageCount.get()));
+            }
+            return quotes;
+        }
+        
+        /**
+         * Simulate one network round trip for a pipelined group of requests, collecting the
+         * responses in request order.
+         */
+        private boolean completeRoundTrip(List<String> inFlight, Map<String, MarketQuote> quotes) {
+            usageCount.incrementAndGet();
+            lastUsedMillis = System.currentTimeMillis();
+            try {
+                Thread.sleep(10); // Simulate API call
+                long now = System.currentTimeMillis();
+                for (String symbol : inFlight) {
+                    double price = 100 + Math.floorMod(symbol.hashCode(), 400) + ThreadLocalRandom.current().nextDouble();
+                    quotes.put(symbol, new MarketQuote(symbol, price, now));
+                }
+                inFlight.clear();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning("Market data fetch interrupted");
+                }
+                return false;
+            }
+        }
+        
         /**
          * Execute a trade order through this connection.
          */
@@ -113,7 +336,7 @@ public class ObjectPoolPattern {
             }
             
             usageCount.incrementAndGet();
-            lastUsed = LocalDateTime.now();
+            lastUsedMillis = System.currentTimeMillis();
             
             if (logger.isLoggable(Level.INFO)) {
                 logger.info(() -> String.format("Executed trade: %d shares of %s at $%.2f via connection %s", 
@@ -121,12 +344,78 @@ public class ObjectPoolPattern {
             }
         }
         
+        /**
+         * Submit a trade order without waiting for the venue to acknowledge it.
+         * 
+         * Up to the order window's worth of orders may be outstanding on this connection;
+         * when the window is full the caller is held back until an acknowledgement frees a
+         * slot, or the returned future fails with {@link RejectedExecutionException} after
+         * the timeout. The acknowledgement is completed on the common fork/join pool, so
+         * dependent stages attached without an executor run there.
+         */
+        public CompletableFuture<TradeAck> submitTrade(String symbol, int quantity, double price)
+                throws InterruptedException {
+            return submitTrade(symbol, quantity, price, 5, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Submit a trade order, waiting at most the given time for room in the order window.
+         */
+        public CompletableFuture<TradeAck> submitTrade(String symbol, int quantity, double price,
+                                                       long timeout, TimeUnit unit) throws InterruptedException {
+            return submitTrade(symbol, quantity, price, timeout, unit, ForkJoinPool.commonPool());
+        }
+        
+        /**
+         * Submit a trade order, completing its acknowledgement on {@code ackExecutor}.
+         * 
+         * Dependent stages attached without an executor run on the thread that completes
+         * the acknowledgement. Handing completion to the caller's executor keeps a slow
+         * callback on one order from holding up the venue timer and every other order's
+         * acknowledgement behind it.
+         */
+        public CompletableFuture<TradeAck> submitTrade(String symbol, int quantity, double price,
+                                                       long timeout, TimeUnit unit, Executor ackExecutor)
+                throws InterruptedException {
+            Objects.requireNonNull(symbol, "Symbol cannot be null");
+            Objects.requireNonNull(ackExecutor, "Acknowledgement executor cannot be null");
+            if (!isValid || !isConnected.get()) {
+                throw new IllegalStateException("Connection is not valid or not connected");
+            }
+            if (!orderWindow.tryAcquire(timeout, unit)) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Order window of " + orderWindowSize + " is full on connection " + connectionId));
+            }
+            
+            usageCount.incrementAndGet();
+            lastUsedMillis = System.currentTimeMillis();
+            long orderId = orderSequence.incrementAndGet();
+            
+            CompletableFuture<TradeAck> ack = new CompletableFuture<>();
+            ACK_SCHEDULER.schedule(() -> {
+                // Free the slot first so callbacks on the ack can submit straight away
+                orderWindow.release();
+                TradeAck tradeAck = new TradeAck(orderId, symbol, quantity, price, System.currentTimeMillis());
+                try {
+                    ack.completeAsync(() -> tradeAck, ackExecutor);
+                } catch (RejectedExecutionException e) {
+                    ack.completeExceptionally(e);
+                }
+            }, 10, TimeUnit.MILLISECONDS); // Simulate venue acknowledgement latency
+            
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine(() -> String.format("Submitted order #%d: %d shares of %s at $%.2f via connection %s",
+                    orderId, quantity, symbol, price, connectionId.toString().substring(0, 8)));
+            }
+            return ack;
+        }
+        
         /**
          * Reset the connection state for reuse.
          */
         @Override
         public void reset() {
-            lastUsed = LocalDateTime.now();
+            lastUsedMillis = System.currentTimeMillis();
             // Don't reset usage count - it's cumulative for monitoring
             
             if (logger.isLoggable(Level.FINE)) {
@@ -140,13 +429,21 @@ public class ObjectPoolPattern {
         @Override
         public boolean isValid() {
             // Connection expires after 30 minutes of inactivity
-            boolean notExpired = lastUsed.isAfter(LocalDateTime.now().minusMinutes(30));
+            boolean notExpired = System.currentTimeMillis() - lastUsedMillis < IDLE_EXPIRY_MILLIS;
             // Connection becomes invalid after 1000 uses (simulate wear)
             boolean notOverused = usageCount.get() < 1000;
             
             return isValid && isConnected.get() && notExpired && notOverused;
         }
         
+        /**
+         * Flag-only check: the connection has not been closed or broken.
+         */
+        @Override
+        public boolean isOpen() {
+            return isValid && isConnected.get();
+        }
+        
         /**
          * Close the connection permanently.
          */
@@ -164,19 +461,230 @@ public class ObjectPoolPattern {
         // Getters
         public UUID getConnectionId() { return connectionId; }
         public String getMarketEndpoint() { return marketEndpoint; }
-        public LocalDateTime getCreatedAt() { return createdAt; }
-        public LocalDateTime getLastUsed() { return lastUsed; }
+        public LocalDateTime getCreatedAt() { return toLocalDateTime(createdAtMillis); }
+        public LocalDateTime getLastUsed() { return toLocalDateTime(lastUsedMillis); }
+        public long getCreatedAtMillis() { return createdAtMillis; }
+        public long getLastUsedMillis() { return lastUsedMillis; }
+        
+        // Reporting only: the hot path keeps primitive millis
+        private static LocalDateTime toLocalDateTime(long epochMillis) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+        }
+        @Override
         public int getUsageCount() { return usageCount.get(); }
         public boolean isConnected() { return isConnected.get(); }
+        public int getOrderWindowSize() { return orderWindowSize; }
+        public int getOutstandingTrades() { return orderWindowSize - orderWindow.availablePermits(); }
+    }
+    
+    /**
+     * Fixed-size log-linear latency histogram in the spirit of HdrHistogram.
+     * 
+     * Every power of two is split into 32 linear sub-buckets (about 3% relative precision),
+     * and the bucket array is allocated up front, so recording is a couple of atomic
+     * increments and never allocates.
+     */
+    public static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+        
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder totalCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong(0);
+        
+        /**
+         * Record one latency sample in nanoseconds; negative values are clamped to zero.
+         */
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            counts.incrementAndGet(bucketIndex(value));
+            totalCount.increment();
+            totalNanos.add(value);
+            if (value > maxNanos.get()) {
+                maxNanos.accumulateAndGet(value, Math::max);
+            }
+        }
+        
+        private static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+        
+        private static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = (index >> SUB_BUCKET_BITS) - 1;
+            long subBucket = index & (SUB_BUCKETS - 1);
+            return ((SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1;
+        }
+        
+        /**
+         * Copy the current distribution into an immutable snapshot.
+         */
+        public HistogramSnapshot snapshot() {
+            long[] copy = new long[BUCKET_COUNT];
+            long count = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                copy[i] = counts.get(i);
+                count += copy[i];
+            }
+            long max = maxNanos.get();
+            double mean = count == 0 ? 0.0 : (double) totalNanos.sum() / totalCount.sum();
+            return new HistogramSnapshot(count, mean, max,
+                percentile(copy, count, max, 50.0),
+                percentile(copy, count, max, 99.0),
+                percentile(copy, count, max, 99.9));
+        }
+        
+        private static long percentile(long[] buckets, long count, long max, double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+    
+    /**
+     * Immutable view of a {@link LatencyHistogram}; all values are in nanoseconds.
+     */
+    public static final class HistogramSnapshot {
+        private final long count;
+        private final double mean;
+        private final long max;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        
+        public HistogramSnapshot(long count, double mean, long max, long p50, long p99, long p999) {
+            this.count = count;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+        
+        public long getCount() { return count; }
+        public double getMean() { return mean; }
+        public long getMax() { return max; }
+        public long getP50() { return p50; }
+        public long getP99() { return p99; }
+        public long getP999() { return p999; }
+        
+        @Override
+        public String toString() {
+            return String.format("[n=%d, p50=%.1fus, p99=%.1fus, p99.9=%.1fus, max=%.1fus]",
+                count, p50 / 1000.0, p99 / 1000.0, p999 / 1000.0, max / 1000.0);
+        }
+    }
+    
+    /**
+     * Slots of the primitive stats snapshot filled by {@link ConnectionPool#snapshotStats(long[])};
+     * each field's ordinal is its index.
+     */
+    public enum StatField {
+        IDLE,
+        MAX_SIZE,
+        EFFECTIVE_MAX_SIZE,
+        CREATED,
+        ACTIVE,
+        ACQUISITIONS,
+        RELEASES,
+        EVICTED,
+        DISCARDED,
+        LEAKED,
+        RECLAIMED,
+        RESIZES,
+        CIRCUIT_TRIPS,
+        /** Ordinal of the pool's {@link ConnectionPool.CircuitState}. */
+        CIRCUIT_STATE;
+        
+        /** Length of a snapshot array; cached because {@code values()} copies. */
+        public static final int COUNT = values().length;
+    }
+    
+    /**
+     * JMX view of a pool's counters and latency percentiles (latencies in microseconds).
+     */
+    public interface ConnectionPoolMXBean {
+        int getPoolSize();
+        int getMaxPoolSize();
+        int getEffectiveMaxPoolSize();
+        int getCreatedObjects();
+        int getActiveObjects();
+        long getTotalAcquisitions();
+        long getTotalReleases();
+        long getAcquireWaitP50Micros();
+        long getAcquireWaitP99Micros();
+        long getAcquireWaitP999Micros();
+        long getHoldTimeP50Micros();
+        long getHoldTimeP99Micros();
+        long getHoldTimeP999Micros();
+        long getCreationTimeP50Micros();
+        long getCreationTimeP99Micros();
+        long getCreationTimeP999Micros();
     }
     
     /**
      * Generic object pool implementation with monitoring and lifecycle management.
      */
     public static class ConnectionPool<T extends Poolable> {
-        private final BlockingQueue<T> pool;
+        private final IdleStore<T> pool;
+        private final Queue<Waiter<T>> waiters;
+        // Size of the waiter queue, which ConcurrentLinkedQueue can only count by walking it
+        private final AtomicInteger waiterCount;
+        private final Map<T, PooledEntry> entries;
+        private final String name;
+        private final LatencyHistogram acquireWait;
+        private final LatencyHistogram holdTime;
+        private final LatencyHistogram creationTime;
+        private final ObjectName mbeanName;
+        private final PoolMode mode;
+        private final WaitMode waitMode;
+        private final HandoutPolicy handoutPolicy;
+        private final ReentrantLock waitLock;
+        private final Condition available;
+        private final Condition drained;
+        private final AtomicBoolean shutdownStarted;
+        private final AtomicInteger lockWaiters;
         private final PoolableFactory<T> factory;
         private final int maxSize;
+        private volatile int effectiveMaxSize;
+        private final SizingController sizing;
+        private final CircuitBreaker breaker;
+        private final int minIdle;
+        private final int maxIdle;
+        private final ScheduledExecutorService maintainer;
+        private final ExecutorService creator;
+        private final int maxPendingCreations;
+        private final AtomicInteger pendingCreations;
+        private final AtomicBoolean replenishScheduled;
+        private final boolean validateOnBorrow;
+        private final int evictionBatchSize;
+        private final AtomicLong evictedCount;
+        private final long leakThresholdNanos;
+        private final int leakStackSampleRate;
+        private final boolean reclaimLeaks;
+        private final AtomicLong leakedCount;
+        private final AtomicLong reclaimedCount;
+        private final Set<T> retired;
+        private final AtomicLong discardedCount;
+        private final AtomicInteger maxDiscardedPerAcquisition;
+        private final SharedCapacity sharedCapacity;
         private final AtomicInteger createdCount;
         private final AtomicLong totalAcquisitions;
         private final AtomicLong totalReleases;
@@ -190,192 +698,2506 @@ public class ObjectPoolPattern {
         }
         
         /**
-         * Pool statistics for monitoring.
+         * Strategy used to hold idle objects between acquisitions.
          */
-        public static class PoolStats {
-            private final int poolSize;
-            private final int maxPoolSize;
-            private final int createdObjects;
-            private final long totalAcquisitions;
-            private final long totalReleases;
+        public enum PoolMode {
+            /** Single shared bounded queue; simple and strictly FIFO. */
+            QUEUE,
+            /** Per-thread affinity caches over a lock-free shared stack, with stealing. */
+            AFFINITY
+        }
+        
+        /**
+         * Which idle object {@link PoolMode#QUEUE} hands out next. Trimming and idle-capacity
+         * transfers always retire from the opposite end.
+         */
+        public enum HandoutPolicy {
+            /** Oldest idle object first; spreads usage evenly across all connections. */
+            FIFO,
+            /** Most recently released object first; keeps a hot core busy and lets the rest age out. */
+            LIFO,
+            /** Object with the lowest {@link Poolable#getUsageCount()} first; evens out wear. */
+            LEAST_USED
+        }
+        
+        /**
+         * State of the pool's circuit breaker around object creation.
+         */
+        public enum CircuitState {
+            /** Normal operation. */
+            CLOSED,
+            /** Creation is failing; acquisitions that would wait fail fast instead. */
+            OPEN,
+            /** One trial creation is in flight to see whether the endpoint is back. */
+            HALF_OPEN
+        }
+        
+        /**
+         * How blocking {@link #acquire} calls wait for an object.
+         */
+        public enum WaitMode {
+            /** Each blocked caller parks on its own future, completed in FIFO order by releases. */
+            HANDOFF,
+            /**
+             * Blocked callers share one {@link ReentrantLock} condition and are signalled per
+             * release. No future or queue node is allocated per waiter, timeouts cost nothing to
+             * clean up and nothing on the wait path is {@code synchronized}, so tens of thousands
+             * of virtual threads can wait without pinning their carriers.
+             */
+            VIRTUAL_THREADS
+        }
+        
+        /**
+         * A queued borrower, stamped with its arrival time for wait-time metrics.
+         */
+        private static final class Waiter<T> extends CompletableFuture<T> {
+            private final long enqueuedAt;
+            private final boolean async;
+            private final Thread thread;
+            // Sampled when the async borrow was requested; the handoff runs on another thread
+            private final Throwable borrowSite;
             
-            public PoolStats(int poolSize, int maxPoolSize, int createdObjects, 
-                           long totalAcquisitions, long totalReleases) {
-                this.poolSize = poolSize;
-                this.maxPoolSize = maxPoolSize;
-                this.createdObjects = createdObjects;
-                this.totalAcquisitions = totalAcquisitions;
-                this.totalReleases = totalReleases;
+            Waiter(long enqueuedAt, boolean async, Throwable borrowSite) {
+                this.enqueuedAt = enqueuedAt;
+                this.async = async;
+                this.thread = Thread.currentThread();
+                this.borrowSite = borrowSite;
+            }
+        }
+        
+        /**
+         * Per-object bookkeeping, allocated once when the object is created so that
+         * borrowing and releasing only update fields.
+         */
+        private static final class PooledEntry {
+            // Release claims a borrow by swapping borrowedAt back to 0, so it can only succeed once
+            private static final AtomicLongFieldUpdater<PooledEntry> BORROWED_AT =
+                AtomicLongFieldUpdater.newUpdater(PooledEntry.class, "borrowedAt");
+            
+            private volatile long borrowedAt;
+            // Leak detection only; written before borrowedAt, which publishes them
+            private Thread borrower;
+            private Throwable borrowSite;
+            // The borrowedAt value last reported as a leak, so each borrow is reported once
+            private volatile long flaggedBorrow;
+        }
+        
+        /**
+         * An object held past the leak threshold, with who borrowed it and, when sampled, where.
+         */
+        public static final class LeakReport {
+            private final Poolable object;
+            private final String borrowerThread;
+            private final long heldMillis;
+            private final StackTraceElement[] borrowSite;
+            
+            public LeakReport(Poolable object, String borrowerThread, long heldMillis, StackTraceElement[] borrowSite) {
+                this.object = object;
+                this.borrowerThread = borrowerThread;
+                this.heldMillis = heldMillis;
+                this.borrowSite = borrowSite;
             }
             
-            public int getPoolSize() { return poolSize; }
-            public int getMaxPoolSize() { return maxPoolSize; }
-            public int getCreatedObjects() { return createdObjects; }
-            public long getTotalAcquisitions() { return totalAcquisitions; }
-            public long getTotalReleases() { return totalReleases; }
-            public int getActiveObjects() { return (int) (totalAcquisitions - totalReleases); }
+            public Poolable getObject() { return object; }
+            public String getBorrowerThread() { return borrowerThread; }
+            public long getHeldMillis() { return heldMillis; }
+            /** Stack of the borrowing call, or an empty array when this borrow was not sampled. */
+            public StackTraceElement[] getBorrowSite() { return borrowSite.clone(); }
             
             @Override
             public String toString() {
-                return String.format("Pool[size=%d/%d, created=%d, active=%d, acquisitions=%d, releases=%d]",
-                    poolSize, maxPoolSize, createdObjects, getActiveObjects(), totalAcquisitions, totalReleases);
+                return String.format("Leak[held=%dms by %s%s]", heldMillis, borrowerThread,
+                    borrowSite.length > 0 ? " at " + borrowSite[0] : "");
             }
         }
         
         /**
-         * Create a connection pool with specified size and factory.
+         * Wait, hold and creation time distributions for one pool.
          */
-        public ConnectionPool(int maxSize, PoolableFactory<T> factory) {
-            if (maxSize <= 0) {
-                throw new IllegalArgumentException("Pool size must be positive");
-            }
+        public static class LatencyStats {
+            private final HistogramSnapshot acquireWait;
+            private final HistogramSnapshot holdTime;
+            private final HistogramSnapshot creationTime;
             
-            this.maxSize = maxSize;
-            this.factory = Objects.requireNonNull(factory, "Factory cannot be null");
-            this.pool = new LinkedBlockingQueue<>();
-            this.createdCount = new AtomicInteger(0);
-            this.totalAcquisitions = new AtomicLong(0);
-            this.totalReleases = new AtomicLong(0);
-            this.isShutdown = false;
+            public LatencyStats(HistogramSnapshot acquireWait, HistogramSnapshot holdTime,
+                              HistogramSnapshot creationTime) {
+                this.acquireWait = acquireWait;
+                this.holdTime = holdTime;
+                this.creationTime = creationTime;
+            }
             
-            // Pre-populate pool with initial objects
-            initializePool();
+            public HistogramSnapshot getAcquireWait() { return acquireWait; }
+            public HistogramSnapshot getHoldTime() { return holdTime; }
+            public HistogramSnapshot getCreationTime() { return creationTime; }
             
-            if (logger.isLoggable(Level.INFO)) {
-                logger.info(() -> "Created connection pool with max size: " + maxSize);
+            @Override
+            public String toString() {
+                return "Latency[wait=" + acquireWait + ", hold=" + holdTime + ", create=" + creationTime + "]";
             }
         }
         
         /**
-         * Initialize pool with objects.
+         * Capacity budget that several pools can draw from, e.g. a global connection limit
+         * across venues.
          */
-        private void initializePool() {
-            int initialSize = Math.min(2, maxSize); // Start with 2 connections
-            for (int i = 0; i < initialSize; i++) {
-                T object = factory.create();
-                if (object != null && object.isValid()) {
-                    boolean added = pool.offer(object);
-                    if (added) {
-                        createdCount.incrementAndGet();
-                    } else {
-                        object.close();
-                    }
+        public static final class SharedCapacity {
+            private final int limit;
+            private final AtomicInteger used = new AtomicInteger(0);
+            
+            public SharedCapacity(int limit) {
+                if (limit <= 0) {
+                    throw new IllegalArgumentException("Shared capacity must be positive");
                 }
+                this.limit = limit;
+            }
+            
+            boolean tryReserve() {
+                int current;
+                do {
+                    current = used.get();
+                    if (current >= limit) {
+                        return false;
+                    }
+                } while (!used.compareAndSet(current, current + 1));
+                return true;
             }
+            
+            void release() {
+                used.decrementAndGet();
+            }
+            
+            public int getLimit() { return limit; }
+            public int getUsed() { return used.get(); }
+            public boolean hasHeadroom() { return used.get() < limit; }
         }
         
         /**
-         * Acquire an object from the pool.
+         * Storage for idle objects. Implementations must be safe for concurrent use.
          */
-        public T acquire() throws InterruptedException {
-            return acquire(5, TimeUnit.SECONDS);
+        private interface IdleStore<T> {
+            boolean offer(T object);
+            T poll();
+            int size();
+            
+            /** Take the object that would be handed out last, for trimming. */
+            T pollColdest();
+            
+            /** Remove a specific idle object; false if it has already been borrowed. */
+            boolean remove(T object);
+            
+            /** Copy the current idle objects without taking them out of circulation. */
+            void snapshot(Collection<? super T> into);
         }
         
         /**
-         * Acquire an object from the pool with timeout.
+         * Idle store backed by a single {@link ArrayBlockingQueue}. The array is sized to the
+         * pool's maximum up front, so offering and polling never allocate.
          */
-        public T acquire(long timeout, TimeUnit unit) throws InterruptedException {
-            if (isShutdown) {
-                throw new IllegalStateException("Pool is shutdown");
+        private static final class QueueIdleStore<T> implements IdleStore<T> {
+            private final BlockingQueue<T> queue;
+            
+            QueueIdleStore(int capacity) {
+                this.queue = new ArrayBlockingQueue<>(capacity);
             }
             
-            totalAcquisitions.incrementAndGet();
+            @Override public boolean offer(T object) { return queue.offer(object); }
+            @Override public T poll() { return queue.poll(); }
+            @Override public int size() { return queue.size(); }
+            @Override public T pollColdest() { return queue.poll(); }
+            @Override public boolean remove(T object) { return queue.remove(object); }
+            @Override public void snapshot(Collection<? super T> into) { into.addAll(queue); }
+        }
+        
+        /**
+         * Idle store kept in a fixed array under a lock, with the next object to hand out at the
+         * top. LIFO simply pushes; least-used-first inserts in usage order. Pools are small, so
+         * the occasional shift is cheaper than a node allocation per release.
+         */
+        private static final class OrderedIdleStore<T extends Poolable> implements IdleStore<T> {
+            private final Object[] elements;
+            private final boolean byUsage;
+            private final ReentrantLock lock = new ReentrantLock();
+            private volatile int count;
             
-            // Try to get from pool first
-            T object = pool.poll();
+            OrderedIdleStore(int capacity, boolean byUsage) {
+                this.elements = new Object[capacity];
+                this.byUsage = byUsage;
+            }
             
-            // If pool is empty and we haven't reached max size, create new
-            if (object == null && createdCount.get() < maxSize) {
-                object = factory.create();
-                if (object != null && object.isValid()) {
-                    createdCount.incrementAndGet();
-                    if (logger.isLoggable(Level.FINE)) {
-                        logger.fine("Created new object for pool");
+            @Override
+            public boolean offer(T object) {
+                lock.lock();
+                try {
+                    int n = count;
+                    if (n == elements.length) {
+                        return false;
                     }
+                    int at = n;
+                    if (byUsage) {
+                        // Keep descending usage towards the top; ties go on top, most recent first
+                        int usage = object.getUsageCount();
+                        while (at > 0 && element(at - 1).getUsageCount() < usage) {
+                            at--;
+                        }
+                        System.arraycopy(elements, at, elements, at + 1, n - at);
+                    }
+                    elements[at] = object;
+                    count = n + 1;
+                    return true;
+                } finally {
+                    lock.unlock();
                 }
             }
             
-            // If still no object, wait for one to be returned
-            if (object == null) {
-                object = pool.poll(timeout, unit);
-            }
-            
-            // Validate object before returning
-            if (object != null && !object.isValid()) {
-                object.close();
-                createdCount.decrementAndGet();
-                // Try to get another one recursively (with reduced timeout)
-                long remainingTimeout = Math.max(1, timeout / 2);
-                return acquire(remainingTimeout, unit);
+            @Override
+            public T poll() {
+                if (count == 0) {
+                    return null;
+                }
+                lock.lock();
+                try {
+                    return count == 0 ? null : removeAt(count - 1);
+                } finally {
+                    lock.unlock();
+                }
             }
             
-            if (object != null) {
-                object.reset();
-                if (logger.isLoggable(Level.FINE)) {
-                    logger.fine("Acquired object from pool");
+            @Override
+            public T pollColdest() {
+                if (count == 0) {
+                    return null;
+                }
+                lock.lock();
+                try {
+                    return count == 0 ? null : removeAt(0);
+                } finally {
+                    lock.unlock();
                 }
             }
             
+            @Override
+            public boolean remove(T object) {
+                lock.lock();
+                try {
+                    for (int i = 0; i < count; i++) {
+                        if (elements[i] == object) {
+                            removeAt(i);
+                            return true;
+                        }
+                    }
+                    return false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            
+            @Override
+            public void snapshot(Collection<? super T> into) {
+                lock.lock();
+                try {
+                    for (int i = 0; i < count; i++) {
+                        into.add(element(i));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            
+            @Override
+            public int size() {
+                return count;
+            }
+            
+            private T removeAt(int index) {
+                T object = element(index);
+                int n = count - 1;
+                System.arraycopy(elements, index + 1, elements, index, n - index);
+                elements[n] = null;
+                count = n;
+                return object;
+            }
+            
+            @SuppressWarnings("unchecked")
+            private T element(int index) {
+                return (T) elements[index];
+            }
+        }
+        
+        /**
+         * Idle store that keeps recently released objects close to the releasing thread.
+         * 
+         * Threads are mapped onto a fixed set of stripes by thread id, so the number of caches
+         * stays bounded no matter how many threads touch the pool. A thread first checks the
+         * slots of its own stripe, then a lock-free shared stack, and finally steals from the
+         * other stripes.
+         */
+        private static final class AffinityIdleStore<T> implements IdleStore<T> {
+            private static final int SLOTS_PER_STRIPE = 4;
+            // Stripes are spaced a cache line apart so neighbouring threads don't false-share
+            private static final int STRIPE_STRIDE = 16;
+            
+            private final AtomicReferenceArray<T> slots;
+            private final int stripeMask;
+            private final ConcurrentLinkedDeque<T> shared = new ConcurrentLinkedDeque<>();
+            private final LongAdder size = new LongAdder();
+            
+            AffinityIdleStore() {
+                int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+                this.stripeMask = stripes - 1;
+                this.slots = new AtomicReferenceArray<>(stripes * STRIPE_STRIDE);
+            }
+            
+            private int homeStripe() {
+                long id = Thread.currentThread().getId();
+                return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+            }
+            
+            @Override
+            public boolean offer(T object) {
+                int base = homeStripe() * STRIPE_STRIDE;
+                boolean cached = false;
+                for (int i = base; i < base + SLOTS_PER_STRIPE; i++) {
+                    if (slots.get(i) == null && slots.compareAndSet(i, null, object)) {
+                        cached = true;
+                        break;
+                    }
+                }
+                if (!cached) {
+                    shared.push(object);
+                }
+                size.increment();
+                return true;
+            }
+            
+            @Override
+            public T poll() {
+                int home = homeStripe();
+                T object = pollStripe(home);
+                if (object == null) {
+                    object = shared.poll();
+                }
+                for (int i = 1; object == null && i <= stripeMask; i++) {
+                    object = pollStripe((home + i) & stripeMask);
+                }
+                if (object != null) {
+                    size.decrement();
+                }
+                return object;
+            }
+            
+            @Override
+            public T pollColdest() {
+                // The bottom of the shared stack has waited longest; thread caches are hot
+                T object = shared.pollLast();
+                if (object != null) {
+                    size.decrement();
+                    return object;
+                }
+                return poll();
+            }
+            
+            @Override
+            public boolean remove(T object) {
+                for (int i = 0; i < slots.length(); i++) {
+                    if (slots.get(i) == object && slots.compareAndSet(i, object, null)) {
+                        size.decrement();
+                        return true;
+                    }
+                }
+                if (shared.removeFirstOccurrence(object)) {
+                    size.decrement();
+                    return true;
+                }
+                return false;
+            }
+            
+            @Override
+            public void snapshot(Collection<? super T> into) {
+                for (int i = 0; i < slots.length(); i++) {
+                    T object = slots.get(i);
+                    if (object != null) {
+                        into.add(object);
+                    }
+                }
+                into.addAll(shared);
+            }
+            
+            private T pollStripe(int stripe) {
+                int base = stripe * STRIPE_STRIDE;
+                for (int i = base; i < base + SLOTS_PER_STRIPE; i++) {
+                    T object = slots.get(i);
+                    if (object != null && slots.compareAndSet(i, object, null)) {
+                        return object;
+                    }
+                }
+                return null;
+            }
+            
+            @Override
+            public int size() {
+                return (int) Math.max(0, size.sum());
+            }
+        }
+        
+        /**
+         * Pool statistics for monitoring.
+         */
+        public static class PoolStats {
+            private final int poolSize;
+            private final int maxPoolSize;
+            private final int createdObjects;
+            private final long totalAcquisitions;
+            private final long totalReleases;
+            private final long evictedObjects;
+            private final long discardedObjects;
+            private final int maxDiscardedPerAcquisition;
+            private final int effectiveMaxPoolSize;
+            private final long resizeCount;
+            private final List<ResizeDecision> recentResizes;
+            private final long leakedObjects;
+            private final long reclaimedObjects;
+            
+            public PoolStats(int poolSize, int maxPoolSize, int createdObjects, 
+                           long totalAcquisitions, long totalReleases) {
+                this(poolSize, maxPoolSize, createdObjects, totalAcquisitions, totalReleases, 0, 0, 0);
+            }
+            
+            public PoolStats(int poolSize, int maxPoolSize, int createdObjects, 
+                           long totalAcquisitions, long totalReleases, long evictedObjects,
+                           long discardedObjects, int maxDiscardedPerAcquisition) {
+                this(poolSize, maxPoolSize, createdObjects, totalAcquisitions, totalReleases, evictedObjects,
+                    discardedObjects, maxDiscardedPerAcquisition, maxPoolSize, 0, Collections.emptyList(), 0, 0);
+            }
+            
+            public PoolStats(int poolSize, int maxPoolSize, int createdObjects, 
+                           long totalAcquisitions, long totalReleases, long evictedObjects,
+                           long discardedObjects, int maxDiscardedPerAcquisition,
+                           int effectiveMaxPoolSize, long resizeCount, List<ResizeDecision> recentResizes,
+                           long leakedObjects, long reclaimedObjects) {
+                this.poolSize = poolSize;
+                this.maxPoolSize = maxPoolSize;
+                this.createdObjects = createdObjects;
+                this.totalAcquisitions = totalAcquisitions;
+                this.totalReleases = totalReleases;
+                this.evictedObjects = evictedObjects;
+                this.discardedObjects = discardedObjects;
+                this.maxDiscardedPerAcquisition = maxDiscardedPerAcquisition;
+                this.effectiveMaxPoolSize = effectiveMaxPoolSize;
+                this.resizeCount = resizeCount;
+                this.recentResizes = List.copyOf(recentResizes);
+                this.leakedObjects = leakedObjects;
+                this.reclaimedObjects = reclaimedObjects;
+            }
+            
+            public int getPoolSize() { return poolSize; }
+            public int getMaxPoolSize() { return maxPoolSize; }
+            public int getCreatedObjects() { return createdObjects; }
+            public long getTotalAcquisitions() { return totalAcquisitions; }
+            public long getTotalReleases() { return totalReleases; }
+            /** Objects on loan right now; reclaimed leaks are no longer counted. */
+            public int getActiveObjects() { return (int) (totalAcquisitions - totalReleases - reclaimedObjects); }
+            public long getEvictedObjects() { return evictedObjects; }
+            public long getDiscardedObjects() { return discardedObjects; }
+            public int getMaxDiscardedPerAcquisition() { return maxDiscardedPerAcquisition; }
+            public int getEffectiveMaxPoolSize() { return effectiveMaxPoolSize; }
+            public long getResizeCount() { return resizeCount; }
+            /** Most recent resize decisions, oldest first. */
+            public List<ResizeDecision> getRecentResizes() { return recentResizes; }
+            public long getLeakedObjects() { return leakedObjects; }
+            public long getReclaimedObjects() { return reclaimedObjects; }
+            
+            @Override
+            public String toString() {
+                return String.format("Pool[size=%d/%d, created=%d, active=%d, acquisitions=%d, releases=%d, "
+                    + "evicted=%d, discarded=%d, effectiveMax=%d, resizes=%d, leaked=%d, reclaimed=%d]",
+                    poolSize, maxPoolSize, createdObjects, getActiveObjects(), totalAcquisitions, totalReleases,
+                    evictedObjects, discardedObjects, effectiveMaxPoolSize, resizeCount, leakedObjects, reclaimedObjects);
+            }
+        }
+        
+        /**
+         * One change of the effective maximum made by adaptive sizing, with the measurements
+         * that triggered it.
+         */
+        public static final class ResizeDecision {
+            private final long timestampMillis;
+            private final int previousMax;
+            private final int newMax;
+            private final double meanWaitMicros;
+            private final double utilization;
+            
+            public ResizeDecision(long timestampMillis, int previousMax, int newMax,
+                                  double meanWaitMicros, double utilization) {
+                this.timestampMillis = timestampMillis;
+                this.previousMax = previousMax;
+                this.newMax = newMax;
+                this.meanWaitMicros = meanWaitMicros;
+                this.utilization = utilization;
+            }
+            
+            public long getTimestampMillis() { return timestampMillis; }
+            public int getPreviousMax() { return previousMax; }
+            public int getNewMax() { return newMax; }
+            public double getMeanWaitMicros() { return meanWaitMicros; }
+            public double getUtilization() { return utilization; }
+            public boolean isGrowth() { return newMax > previousMax; }
+            
+            @Override
+            public String toString() {
+                return String.format("Resize[%s %d -> %d, wait=%.1fus, utilization=%.0f%%]",
+                    isGrowth() ? "grow" : "shrink", previousMax, newMax, meanWaitMicros, utilization * 100);
+            }
+        }
+        
+        /**
+         * Builder for pools that need more than a size and a factory.
+         */
+        public static class Builder<T extends Poolable> {
+            // Required parameters
+            private final int maxSize;
+            private final PoolableFactory<T> factory;
+            
+            // Optional parameters with default values
+            private String name;
+            private boolean jmxEnabled = false;
+            private PoolMode mode = PoolMode.QUEUE;
+            private WaitMode waitMode = WaitMode.HANDOFF;
+            private HandoutPolicy handoutPolicy = HandoutPolicy.FIFO;
+            private int minIdle;
+            private int maxIdle;
+            private long maintenanceIntervalMillis = 1000;
+            private long evictionIntervalMillis = 1000;
+            private int evictionBatchSize = 8;
+            private int creationThreads;
+            private int maxPendingCreations;
+            private SharedCapacity sharedCapacity;
+            private int sizingLowerBound;
+            private long sizingIntervalMillis;
+            private long growWaitNanos = TimeUnit.MILLISECONDS.toNanos(5);
+            private double shrinkUtilization = 0.5;
+            private int growIntervals = 2;
+            private int shrinkIntervals = 5;
+            private long leakThresholdNanos;
+            private int leakStackSampleRate;
+            private boolean reclaimLeaks;
+            private int breakerFailureThreshold;
+            private long breakerOpenNanos;
+            
+            /**
+             * Constructor with required parameters.
+             */
+            public Builder(int maxSize, PoolableFactory<T> factory) {
+                if (maxSize <= 0) {
+                    throw new IllegalArgumentException("Pool size must be positive");
+                }
+                this.maxSize = maxSize;
+                this.factory = Objects.requireNonNull(factory, "Factory cannot be null");
+                this.minIdle = Math.min(2, maxSize); // Start with 2 connections
+                this.maxIdle = maxSize;
+                this.creationThreads = Math.min(4, maxSize);
+                this.maxPendingCreations = creationThreads;
+            }
+            
+            /**
+             * Name used in logs and as the JMX {@code name} key; defaults to a generated one.
+             */
+            public Builder<T> setName(String name) {
+                this.name = Objects.requireNonNull(name, "Pool name cannot be null");
+                return this;
+            }
+            
+            /**
+             * Register a {@link ConnectionPoolMXBean} with the platform MBean server.
+             */
+            public Builder<T> setJmxEnabled(boolean jmxEnabled) {
+                this.jmxEnabled = jmxEnabled;
+                return this;
+            }
+            
+            public Builder<T> setMode(PoolMode mode) {
+                this.mode = Objects.requireNonNull(mode, "Pool mode cannot be null");
+                return this;
+            }
+            
+            /**
+             * Order in which idle objects are handed out. Only {@link PoolMode#QUEUE} supports a
+             * policy other than FIFO; affinity mode already prefers the caller's own objects.
+             */
+            public Builder<T> setHandoutPolicy(HandoutPolicy handoutPolicy) {
+                this.handoutPolicy = Objects.requireNonNull(handoutPolicy, "Handout policy cannot be null");
+                return this;
+            }
+            
+            public Builder<T> setWaitMode(WaitMode waitMode) {
+                this.waitMode = Objects.requireNonNull(waitMode, "Wait mode cannot be null");
+                return this;
+            }
+            
+            /**
+             * Number of idle objects the maintainer keeps ready ahead of demand.
+             */
+            public Builder<T> setMinIdle(int minIdle) {
+                if (minIdle < 0) {
+                    throw new IllegalArgumentException("Minimum idle cannot be negative");
+                }
+                this.minIdle = minIdle;
+                return this;
+            }
+            
+            /**
+             * Number of idle objects above which the maintainer closes the surplus.
+             */
+            public Builder<T> setMaxIdle(int maxIdle) {
+                if (maxIdle < 0) {
+                    throw new IllegalArgumentException("Maximum idle cannot be negative");
+                }
+                this.maxIdle = maxIdle;
+                return this;
+            }
+            
+            /**
+             * How often the background maintainer sweeps the pool; zero disables it.
+             */
+            public Builder<T> setMaintenanceInterval(long interval, TimeUnit unit) {
+                if (interval < 0) {
+                    throw new IllegalArgumentException("Maintenance interval cannot be negative");
+                }
+                this.maintenanceIntervalMillis = unit.toMillis(interval);
+                return this;
+            }
+            
+            /**
+             * How often idle objects are fully validated in the background; zero disables the
+             * evictor and makes every borrow run the full {@link Poolable#isValid()} check instead.
+             */
+            public Builder<T> setEvictionInterval(long interval, TimeUnit unit) {
+                if (interval < 0) {
+                    throw new IllegalArgumentException("Eviction interval cannot be negative");
+                }
+                this.evictionIntervalMillis = unit.toMillis(interval);
+                return this;
+            }
+            
+            /**
+             * Number of idle objects validated before the evictor yields to other threads.
+             */
+            public Builder<T> setEvictionBatchSize(int evictionBatchSize) {
+                if (evictionBatchSize <= 0) {
+                    throw new IllegalArgumentException("Eviction batch size must be positive");
+                }
+                this.evictionBatchSize = evictionBatchSize;
+                return this;
+            }
+            
+            /**
+             * Number of threads used to create objects in parallel.
+             */
+            public Builder<T> setCreationThreads(int creationThreads) {
+                if (creationThreads <= 0) {
+                    throw new IllegalArgumentException("Creation threads must be positive");
+                }
+                this.creationThreads = creationThreads;
+                this.maxPendingCreations = creationThreads;
+                return this;
+            }
+            
+            /**
+             * Upper bound on creations in flight at once, to keep a burst from opening
+             * a storm of expensive connections at the same moment.
+             */
+            public Builder<T> setMaxPendingCreations(int maxPendingCreations) {
+                if (maxPendingCreations <= 0) {
+                    throw new IllegalArgumentException("Maximum pending creations must be positive");
+                }
+                this.maxPendingCreations = maxPendingCreations;
+                return this;
+            }
+            
+            /**
+             * Let the effective maximum float between {@code lowerBound} and maxSize, re-evaluated
+             * every {@code interval} from the acquire wait and utilization the pool observes. The
+             * pool starts at the lower bound; maxSize stays the hard cap and idle store capacity.
+             */
+            public Builder<T> setAdaptiveSizing(int lowerBound, long interval, TimeUnit unit) {
+                if (lowerBound <= 0 || lowerBound > maxSize) {
+                    throw new IllegalArgumentException("Sizing lower bound must be between 1 and maxSize");
+                }
+                if (interval <= 0) {
+                    throw new IllegalArgumentException("Sizing interval must be positive");
+                }
+                this.sizingLowerBound = lowerBound;
+                this.sizingIntervalMillis = unit.toMillis(interval);
+                return this;
+            }
+            
+            /**
+             * Grow when the mean acquire wait over an interval reaches {@code growWait}; shrink when
+             * utilization is at or below {@code shrinkUtilization} and callers are barely waiting.
+             */
+            public Builder<T> setSizingThresholds(long growWait, TimeUnit unit, double shrinkUtilization) {
+                if (growWait <= 0) {
+                    throw new IllegalArgumentException("Grow wait threshold must be positive");
+                }
+                if (shrinkUtilization < 0 || shrinkUtilization >= 1) {
+                    throw new IllegalArgumentException("Shrink utilization must be in [0, 1)");
+                }
+                this.growWaitNanos = unit.toNanos(growWait);
+                this.shrinkUtilization = shrinkUtilization;
+                return this;
+            }
+            
+            /**
+             * Number of consecutive intervals that must agree before growing or shrinking. Shrinking
+             * is normally the slower of the two so a brief lull does not undo a market-open ramp.
+             */
+            public Builder<T> setSizingHysteresis(int growIntervals, int shrinkIntervals) {
+                if (growIntervals <= 0 || shrinkIntervals <= 0) {
+                    throw new IllegalArgumentException("Sizing hysteresis must be positive");
+                }
+                this.growIntervals = growIntervals;
+                this.shrinkIntervals = shrinkIntervals;
+                return this;
+            }
+            
+            /**
+             * Report objects borrowed for longer than {@code threshold}, naming the borrowing
+             * thread. One borrow in {@code stackSampleRate} also records its stack trace, which
+             * keeps the cost off most acquisitions. With {@code reclaim} a flagged object is
+             * closed and its slot freed; a late release of it is then simply dropped.
+             */
+            public Builder<T> setLeakDetection(long threshold, TimeUnit unit, int stackSampleRate, boolean reclaim) {
+                if (threshold <= 0) {
+                    throw new IllegalArgumentException("Leak threshold must be positive");
+                }
+                if (stackSampleRate <= 0) {
+                    throw new IllegalArgumentException("Stack sample rate must be positive");
+                }
+                this.leakThresholdNanos = unit.toNanos(threshold);
+                this.leakStackSampleRate = stackSampleRate;
+                this.reclaimLeaks = reclaim;
+                return this;
+            }
+            
+            /**
+             * Trip a circuit breaker after {@code failureThreshold} consecutive failed creations or
+             * broken objects found by validation. While open, acquisitions that would have to wait
+             * fail fast with a {@link RejectedExecutionException}; after {@code openDuration} a
+             * single trial creation decides whether to close it again.
+             */
+            public Builder<T> setCircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+                if (failureThreshold <= 0) {
+                    throw new IllegalArgumentException("Failure threshold must be positive");
+                }
+                if (openDuration <= 0) {
+                    throw new IllegalArgumentException("Open duration must be positive");
+                }
+                this.breakerFailureThreshold = failureThreshold;
+                this.breakerOpenNanos = unit.toNanos(openDuration);
+                return this;
+            }
+            
+            /**
+             * Draw creations from a capacity budget shared with other pools, on top of maxSize.
+             */
+            public Builder<T> setSharedCapacity(SharedCapacity sharedCapacity) {
+                this.sharedCapacity = Objects.requireNonNull(sharedCapacity, "Shared capacity cannot be null");
+                return this;
+            }
+            
+            public ConnectionPool<T> build() {
+                if (minIdle > maxIdle || maxIdle > maxSize) {
+                    throw new IllegalArgumentException("Expected minIdle <= maxIdle <= maxSize");
+                }
+                if (sizingLowerBound > 0 && minIdle > sizingLowerBound) {
+                    throw new IllegalArgumentException("Expected minIdle <= sizing lower bound");
+                }
+                if (mode == PoolMode.AFFINITY && handoutPolicy != HandoutPolicy.FIFO) {
+                    throw new IllegalArgumentException("Handout policy " + handoutPolicy + " requires QUEUE mode");
+                }
+                return new ConnectionPool<>(this);
+            }
+        }
+        
+        /**
+         * Create a connection pool with specified size and factory.
+         */
+        public ConnectionPool(int maxSize, PoolableFactory<T> factory) {
+            this(new Builder<>(maxSize, factory));
+        }
+        
+        /**
+         * Create a connection pool with specified size, factory and idle storage mode.
+         */
+        public ConnectionPool(int maxSize, PoolableFactory<T> factory, PoolMode mode) {
+            this(new Builder<>(maxSize, factory).setMode(mode));
+        }
+        
+        private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger(0);
+        
+        private static <T extends Poolable> IdleStore<T> createIdleStore(PoolMode mode, HandoutPolicy policy, int capacity) {
+            if (mode == PoolMode.AFFINITY) {
+                return new AffinityIdleStore<>();
+            }
+            return switch (policy) {
+                case FIFO -> new QueueIdleStore<>(capacity);
+                case LIFO -> new OrderedIdleStore<>(capacity, false);
+                case LEAST_USED -> new OrderedIdleStore<>(capacity, true);
+            };
+        }
+        
+        private ConnectionPool(Builder<T> builder) {
+            this.name = builder.name != null ? builder.name : "pool-" + POOL_SEQUENCE.incrementAndGet();
+            this.maxSize = builder.maxSize;
+            this.sizing = builder.sizingLowerBound > 0 ? new SizingController(builder) : null;
+            this.breaker = builder.breakerFailureThreshold > 0 ? new CircuitBreaker(builder) : null;
+            this.effectiveMaxSize = sizing != null ? builder.sizingLowerBound : maxSize;
+            this.factory = builder.factory;
+            this.mode = builder.mode;
+            this.waitMode = builder.waitMode;
+            this.waitLock = new ReentrantLock();
+            this.available = waitLock.newCondition();
+            this.drained = waitLock.newCondition();
+            this.shutdownStarted = new AtomicBoolean(false);
+            this.lockWaiters = new AtomicInteger(0);
+            this.minIdle = builder.minIdle;
+            this.maxIdle = builder.maxIdle;
+            this.handoutPolicy = builder.handoutPolicy;
+            this.pool = createIdleStore(mode, handoutPolicy, maxSize);
+            this.waiters = new ConcurrentLinkedQueue<>();
+            this.waiterCount = new AtomicInteger(0);
+            this.entries = new ConcurrentHashMap<>();
+            this.acquireWait = new LatencyHistogram();
+            this.holdTime = new LatencyHistogram();
+            this.creationTime = new LatencyHistogram();
+            this.creator = Executors.newFixedThreadPool(builder.creationThreads, daemonThreads("pool-creator"));
+            this.maxPendingCreations = builder.maxPendingCreations;
+            this.maintainer = Executors.newSingleThreadScheduledExecutor(daemonThreads("pool-maintainer"));
+            this.pendingCreations = new AtomicInteger(0);
+            this.replenishScheduled = new AtomicBoolean(false);
+            this.validateOnBorrow = builder.evictionIntervalMillis == 0;
+            this.evictionBatchSize = builder.evictionBatchSize;
+            this.evictedCount = new AtomicLong(0);
+            this.leakThresholdNanos = builder.leakThresholdNanos;
+            this.leakStackSampleRate = builder.leakStackSampleRate;
+            this.reclaimLeaks = builder.reclaimLeaks;
+            this.leakedCount = new AtomicLong(0);
+            this.reclaimedCount = new AtomicLong(0);
+            this.retired = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+            this.discardedCount = new AtomicLong(0);
+            this.maxDiscardedPerAcquisition = new AtomicInteger(0);
+            this.sharedCapacity = builder.sharedCapacity;
+            this.createdCount = new AtomicInteger(0);
+            this.totalAcquisitions = new AtomicLong(0);
+            this.totalReleases = new AtomicLong(0);
+            this.isShutdown = false;
+            
+            // Pre-populate pool with initial objects
+            initializePool();
+            
+            if (builder.maintenanceIntervalMillis > 0) {
+                maintainer.scheduleWithFixedDelay(this::maintain, builder.maintenanceIntervalMillis,
+                    builder.maintenanceIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            if (leakThresholdNanos > 0) {
+                long scanMillis = Math.max(100, TimeUnit.NANOSECONDS.toMillis(leakThresholdNanos) / 4);
+                maintainer.scheduleWithFixedDelay(this::detectLeaks, scanMillis, scanMillis, TimeUnit.MILLISECONDS);
+            }
+            if (sizing != null) {
+                maintainer.scheduleWithFixedDelay(sizing::evaluate, builder.sizingIntervalMillis,
+                    builder.sizingIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            if (!validateOnBorrow) {
+                maintainer.scheduleWithFixedDelay(this::evictStale, builder.evictionIntervalMillis,
+                    builder.evictionIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            
+            this.mbeanName = builder.jmxEnabled ? registerMBean() : null;
+            
+            if (logger.isLoggable(Level.INFO)) {
+                logger.info(() -> "Created connection pool " + name + " with max size: " + maxSize
+                    + " (mode: " + mode + ")");
+            }
+        }
+        
+        private ObjectName registerMBean() {
+            try {
+                ObjectName objectName = new ObjectName("randomcode.patterns:type=ConnectionPool,name="
+                    + ObjectName.quote(name));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new PoolMetrics(), objectName);
+                return objectName;
+            } catch (JMException e) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Could not register pool MBean: " + e.getMessage());
+                }
+                return null;
+            }
+        }
+        
+        /**
+         * MXBean adapter over this pool's live counters and histograms.
+         */
+        private final class PoolMetrics implements ConnectionPoolMXBean {
+            private static final long NANOS_PER_MICRO = 1000;
+            
+            @Override public int getPoolSize() { return pool.size(); }
+            @Override public int getMaxPoolSize() { return maxSize; }
+            @Override public int getEffectiveMaxPoolSize() { return effectiveMaxSize; }
+            @Override public int getCreatedObjects() { return createdCount.get(); }
+            @Override public int getActiveObjects() { return getStats().getActiveObjects(); }
+            @Override public long getTotalAcquisitions() { return totalAcquisitions.get(); }
+            @Override public long getTotalReleases() { return totalReleases.get(); }
+            @Override public long getAcquireWaitP50Micros() { return acquireWait.snapshot().getP50() / NANOS_PER_MICRO; }
+            @Override public long getAcquireWaitP99Micros() { return acquireWait.snapshot().getP99() / NANOS_PER_MICRO; }
+            @Override public long getAcquireWaitP999Micros() { return acquireWait.snapshot().getP999() / NANOS_PER_MICRO; }
+            @Override public long getHoldTimeP50Micros() { return holdTime.snapshot().getP50() / NANOS_PER_MICRO; }
+            @Override public long getHoldTimeP99Micros() { return holdTime.snapshot().getP99() / NANOS_PER_MICRO; }
+            @Override public long getHoldTimeP999Micros() { return holdTime.snapshot().getP999() / NANOS_PER_MICRO; }
+            @Override public long getCreationTimeP50Micros() { return creationTime.snapshot().getP50() / NANOS_PER_MICRO; }
+            @Override public long getCreationTimeP99Micros() { return creationTime.snapshot().getP99() / NANOS_PER_MICRO; }
+            @Override public long getCreationTimeP999Micros() { return creationTime.snapshot().getP999() / NANOS_PER_MICRO; }
+        }
+        
+        /**
+         * Initialize pool with objects, creating them in parallel.
+         */
+        private void initializePool() {
+            CompletableFuture.allOf(replenish()).join();
+        }
+        
+        /**
+         * Circuit breaker around object creation. Consecutive failures trip it open, which fails
+         * every queued caller at once; after the open period the first creation attempt becomes
+         * the half-open trial, and its outcome closes or reopens the breaker. Objects that are
+         * merely worn out or expired do not count, only ones that report themselves closed, and
+         * any object that passes validation breaks the run of failures.
+         */
+        private final class CircuitBreaker {
+            private final int failureThreshold;
+            private final long openNanos;
+            private final AtomicReference<CircuitState> state = new AtomicReference<>(CircuitState.CLOSED);
+            private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+            private final AtomicLong tripCount = new AtomicLong(0);
+            private volatile long openedAt;
+            
+            CircuitBreaker(Builder<T> builder) {
+                this.failureThreshold = builder.breakerFailureThreshold;
+                this.openNanos = builder.breakerOpenNanos;
+            }
+            
+            boolean isRejecting() {
+                return state.get() != CircuitState.CLOSED;
+            }
+            
+            /**
+             * Whether a creation may start; claims the single half-open trial once the open
+             * period has passed.
+             */
+            boolean allowCreation() {
+                CircuitState current = state.get();
+                if (current == CircuitState.CLOSED) {
+                    return true;
+                }
+                return current == CircuitState.OPEN && System.nanoTime() - openedAt >= openNanos
+                    && state.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
+            }
+            
+            void recordSuccess() {
+                if (consecutiveFailures.get() != 0) {
+                    consecutiveFailures.set(0);
+                }
+                if (state.get() == CircuitState.HALF_OPEN && state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.CLOSED)) {
+                    if (logger.isLoggable(Level.INFO)) {
+                        logger.info(() -> "Pool " + name + " circuit closed after a successful trial");
+                    }
+                }
+            }
+            
+            /**
+             * A pooled object passed validation. Ends a run of failures but leaves an open
+             * breaker to its trial creation, which is what probes the endpoint.
+             */
+            void recordHealthy() {
+                // Read first so healthy borrows don't all write the shared counter
+                if (consecutiveFailures.get() != 0) {
+                    consecutiveFailures.set(0);
+                }
+            }
+            
+            void recordFailure() {
+                if (state.get() == CircuitState.HALF_OPEN) {
+                    openedAt = System.nanoTime();
+                    if (state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN) && logger.isLoggable(Level.WARNING)) {
+                        logger.warning(() -> "Pool " + name + " circuit reopened after a failed trial");
+                    }
+                    return;
+                }
+                if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == CircuitState.CLOSED) {
+                    openedAt = System.nanoTime();
+                    if (state.compareAndSet(CircuitState.CLOSED, CircuitState.OPEN)) {
+                        tripCount.incrementAndGet();
+                        failWaiters();
+                        if (logger.isLoggable(Level.WARNING)) {
+                            logger.warning(() -> "Pool " + name + " circuit opened after " + failureThreshold
+                                + " consecutive failures");
+                        }
+                    }
+                }
+            }
+            
+            private void failWaiters() {
+                Waiter<T> waiter;
+                while ((waiter = pollWaiter()) != null) {
+                    waiter.completeExceptionally(circuitOpen());
+                }
+                signalLockWaiters(true);
+            }
+        }
+        
+        private RejectedExecutionException circuitOpen() {
+            return new RejectedExecutionException("Circuit breaker open for pool " + name);
+        }
+        
+        /**
+         * Adaptive sizing: each interval compares the mean acquire wait since the last look and
+         * the share of the effective maximum on loan against the thresholds. A resize needs
+         * several agreeing intervals in a row and anything in the dead band between the two
+         * signals resets the count, so the limit does not flap. Runs only on the maintainer.
+         */
+        private final class SizingController {
+            private static final double GROW_UTILIZATION = 0.9;
+            private static final int HISTORY_SIZE = 16;
+            
+            private final int lowerBound;
+            private final long growWaitNanos;
+            private final double shrinkUtilization;
+            private final int growIntervals;
+            private final int shrinkIntervals;
+            private final ConcurrentLinkedDeque<ResizeDecision> history = new ConcurrentLinkedDeque<>();
+            private volatile long resizeCount;
+            private long lastWaitCount;
+            private double lastWaitTotalNanos;
+            private int growStreak;
+            private int shrinkStreak;
+            
+            SizingController(Builder<T> builder) {
+                this.lowerBound = builder.sizingLowerBound;
+                this.growWaitNanos = builder.growWaitNanos;
+                this.shrinkUtilization = builder.shrinkUtilization;
+                this.growIntervals = builder.growIntervals;
+                this.shrinkIntervals = builder.shrinkIntervals;
+            }
+            
+            void evaluate() {
+                if (isShutdown) {
+                    return;
+                }
+                try {
+                    HistogramSnapshot wait = acquireWait.snapshot();
+                    double waitTotalNanos = wait.getMean() * wait.getCount();
+                    long intervalCount = wait.getCount() - lastWaitCount;
+                    double meanWaitNanos = intervalCount > 0 ? (waitTotalNanos - lastWaitTotalNanos) / intervalCount : 0;
+                    lastWaitCount = wait.getCount();
+                    lastWaitTotalNanos = waitTotalNanos;
+                    
+                    int current = effectiveMaxSize;
+                    double utilization = (double) (createdCount.get() - pool.size()) / current;
+                    
+                    if (current < maxSize && (meanWaitNanos >= growWaitNanos || utilization >= GROW_UTILIZATION)) {
+                        shrinkStreak = 0;
+                        if (++growStreak >= growIntervals) {
+                            resize(current, Math.min(maxSize, current + Math.max(1, current / 4)), meanWaitNanos, utilization);
+                        }
+                    } else if (current > lowerBound && utilization <= shrinkUtilization && meanWaitNanos < growWaitNanos / 4) {
+                        growStreak = 0;
+                        if (++shrinkStreak >= shrinkIntervals) {
+                            resize(current, Math.max(lowerBound, current - Math.max(1, current / 8)), meanWaitNanos, utilization);
+                        }
+                    } else {
+                        growStreak = 0;
+                        shrinkStreak = 0;
+                    }
+                } catch (RuntimeException e) {
+                    if (logger.isLoggable(Level.WARNING)) {
+                        logger.warning(() -> "Pool sizing failed: " + e.getMessage());
+                    }
+                }
+            }
+            
+            private void resize(int from, int to, double meanWaitNanos, double utilization) {
+                growStreak = 0;
+                shrinkStreak = 0;
+                effectiveMaxSize = to;
+                
+                ResizeDecision decision = new ResizeDecision(System.currentTimeMillis(), from, to,
+                    meanWaitNanos / 1000.0, utilization);
+                history.addLast(decision);
+                if (history.size() > HISTORY_SIZE) {
+                    history.pollFirst();
+                }
+                resizeCount++;
+                
+                if (to > from) {
+                    // Callers already queued saw the old limit; creations chain while any remain
+                    if (!waiters.isEmpty() || lockWaiters.get() > 0) {
+                        tryStartCreation();
+                    }
+                } else {
+                    trimSurplus();
+                }
+                
+                if (logger.isLoggable(Level.INFO)) {
+                    logger.info(() -> "Pool " + name + " " + decision);
+                }
+            }
+            
+            List<ResizeDecision> recentResizes() {
+                return new ArrayList<>(history);
+            }
+        }
+        
+        /**
+         * Periodic maintenance: close surplus idle objects, then top up to minIdle.
+         */
+        private void maintain() {
+            if (isShutdown) {
+                return;
+            }
+            try {
+                trimSurplus();
+                replenish();
+            } catch (RuntimeException e) {
+                // Never let a failure cancel the scheduled task
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Pool maintenance failed: " + e.getMessage());
+                }
+            }
+        }
+        
+        private void trimSurplus() {
+            closeIdle(Math.max(pool.size() - maxIdle, createdCount.get() - effectiveMaxSize));
+        }
+        
+        /**
+         * Close up to {@code count} idle objects, giving their capacity back.
+         * 
+         * @return the number of objects actually closed
+         */
+        public int closeIdle(int count) {
+            int closed = 0;
+            T object;
+            while (closed < count && (object = pool.pollColdest()) != null) {
+                discard(object);
+                closed++;
+            }
+            return closed;
+        }
+        
+        /**
+         * Visit each idle object once and fully validate it in place, a batch at a time, so
+         * stale objects are closed before anyone borrows them. Valid objects never leave the
+         * store, which keeps the handout order intact.
+         */
+        private void evictStale() {
+            if (isShutdown) {
+                return;
+            }
+            try {
+                List<T> idle = new ArrayList<>(pool.size());
+                pool.snapshot(idle);
+                int evicted = 0;
+                for (int i = 0; i < idle.size() && !isShutdown; i++) {
+                    T candidate = idle.get(i);
+                    // Losing the removal race for a stale object means a borrower has it; isOpen()
+                    // guards that path
+                    if (candidate.isValid()) {
+                        if (breaker != null) {
+                            breaker.recordHealthy();
+                        }
+                    } else if (pool.remove(candidate)) {
+                        if (breaker != null && !candidate.isOpen()) {
+                            breaker.recordFailure();
+                        }
+                        discard(candidate);
+                        evicted++;
+                    }
+                    if ((i + 1) % evictionBatchSize == 0) {
+                        Thread.yield();
+                    }
+                }
+                
+                if (evicted > 0) {
+                    evictedCount.addAndGet(evicted);
+                    replenish();
+                    int count = evicted;
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.fine(() -> "Evicted " + count + " stale objects");
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Pool eviction failed: " + e.getMessage());
+                }
+            }
+        }
+        
+        /**
+         * Borrow-time check: just the open flag when the evictor validates in the background,
+         * the full validation otherwise.
+         */
+        private boolean isReady(T object) {
+            boolean ready = validateOnBorrow ? object.isValid() : object.isOpen();
+            if (breaker != null) {
+                if (ready) {
+                    breaker.recordHealthy();
+                } else if (!object.isOpen()) {
+                    breaker.recordFailure();
+                }
+            }
+            return ready;
+        }
+        
+        /**
+         * Start enough parallel creations to bring the idle count back to minIdle.
+         */
+        private CompletableFuture<?>[] replenish() {
+            int deficit = minIdle - pool.size() - pendingCreations.get();
+            List<CompletableFuture<?>> creations = new ArrayList<>();
+            CompletableFuture<Void> creation;
+            while (deficit-- > 0 && (creation = tryStartCreation()) != null) {
+                creations.add(creation);
+            }
+            return creations.toArray(new CompletableFuture<?>[0]);
+        }
+        
+        /**
+         * Ask the maintainer to top up idle objects as soon as possible, at most once at a time.
+         */
+        private void requestReplenish() {
+            if (minIdle > 0 && !isShutdown && replenishScheduled.compareAndSet(false, true)) {
+                maintainer.execute(() -> {
+                    replenishScheduled.set(false);
+                    replenish();
+                });
+            }
+        }
+        
+        /**
+         * Claim one unit of capacity before creating, so concurrent creators can't overshoot
+         * maxSize or the shared capacity this pool draws from.
+         */
+        private boolean reserveSlot() {
+            int current;
+            do {
+                current = createdCount.get();
+                if (current >= effectiveMaxSize) {
+                    return false;
+                }
+            } while (!createdCount.compareAndSet(current, current + 1));
+            
+            if (sharedCapacity != null && !sharedCapacity.tryReserve()) {
+                createdCount.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+        
+        private void releaseSlot() {
+            createdCount.decrementAndGet();
+            if (sharedCapacity != null) {
+                sharedCapacity.release();
+            }
+        }
+        
+        /**
+         * Start creating one object on the creator threads if both an in-flight permit and
+         * a capacity slot can be reserved.
+         * 
+         * The new object goes through {@link #returnToPool}, so it is handed to the longest
+         * waiter rather than to whichever caller triggered the creation.
+         * 
+         * @return the running creation, or null if creation is capped right now
+         */
+        private CompletableFuture<Void> tryStartCreation() {
+            int pending;
+            do {
+                pending = pendingCreations.get();
+                if (pending >= maxPendingCreations) {
+                    return null;
+                }
+            } while (!pendingCreations.compareAndSet(pending, pending + 1));
+            
+            if (!reserveSlot()) {
+                pendingCreations.decrementAndGet();
+                return null;
+            }
+            if (breaker != null && !breaker.allowCreation()) {
+                releaseSlot();
+                pendingCreations.decrementAndGet();
+                return null;
+            }
+            return createAsync();
+        }
+        
+        /**
+         * Create one object on the creator threads for an in-flight permit and capacity
+         * slot that were already reserved.
+         */
+        private CompletableFuture<Void> createAsync() {
+            try {
+                return CompletableFuture.runAsync(this::runCreation, creator);
+            } catch (RejectedExecutionException e) {
+                // Shut down underneath us: hand back what was reserved
+                pendingCreations.decrementAndGet();
+                releaseSlot();
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        
+        private void runCreation() {
+            boolean created = false;
+            try {
+                created = createAndOffer();
+            } finally {
+                pendingCreations.decrementAndGet();
+            }
+            // Creation was capped while these callers queued up; keep going for the ones no
+            // creation is already on its way for. With a breaker, failures retry too, so
+            // queued callers trip it instead of timing out
+            if ((created || breaker != null) && waiterCount.get() > pendingCreations.get()) {
+                tryStartCreation();
+            }
+        }
+        
+        /**
+         * Run the factory and publish the result, releasing the reserved slot on failure.
+         * 
+         * The slot and the breaker outcome are settled in {@code finally}, so even an
+         * {@link Error} from the factory can't leak capacity or leave a half-open trial
+         * claimed forever.
+         */
+        private boolean createAndOffer() {
+            boolean published = false;
+            boolean outcomeRecorded = false;
+            try {
+                long start = System.nanoTime();
+                T created = factory.create();
+                creationTime.record(System.nanoTime() - start);
+                boolean usable = created != null && created.isValid();
+                if (breaker != null && !isShutdown) {
+                    if (usable) {
+                        breaker.recordSuccess();
+                    } else {
+                        breaker.recordFailure();
+                    }
+                }
+                outcomeRecorded = true;
+                if (usable && !isShutdown) {
+                    entries.put(created, new PooledEntry());
+                    published = true;
+                    returnToPool(created);
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.fine("Created new object for pool");
+                    }
+                    return true;
+                }
+                if (created != null) {
+                    created.close();
+                }
+            } catch (RuntimeException e) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Failed to create pooled object: " + e.getMessage());
+                }
+            } finally {
+                if (!published) {
+                    releaseSlot();
+                }
+                if (!outcomeRecorded && breaker != null) {
+                    breaker.recordFailure();
+                }
+            }
+            return false;
+        }
+        
+        private void discard(T object) {
+            object.close();
+            // Reclaimed leaks have already given their slot back
+            if (entries.remove(object) != null) {
+                releaseSlot();
+            }
+        }
+        
+        /**
+         * Acquire an object from the pool.
+         */
+        public T acquire() throws InterruptedException {
+            return acquire(5, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Acquire an object from the pool with timeout.
+         * 
+         * The timeout is an absolute deadline: invalid objects are discarded and skipped in
+         * a loop, but the call never waits longer than requested in total.
+         * 
+         * @throws RejectedExecutionException if the circuit breaker is open and nothing is idle
+         */
+        public T acquire(long timeout, TimeUnit unit) throws InterruptedException {
+            if (isShutdown) {
+                throw new IllegalStateException("Pool is shutdown");
+            }
+            
+            totalAcquisitions.incrementAndGet();
+            long start = System.nanoTime();
+            long deadline = start + unit.toNanos(timeout);
+            int discarded = 0;
+            T object;
+            
+            while (true) {
+                // Try to get from pool first
+                object = pool.poll();
+                
+                // If pool is empty, queue up and let a release or a background creation serve us
+                if (object == null) {
+                    if (breaker != null && breaker.isRejecting()) {
+                        // Possibly the half-open trial; either way nobody waits on it
+                        tryStartCreation();
+                        totalAcquisitions.decrementAndGet();
+                        throw circuitOpen();
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    object = remaining > 0 ? awaitObject(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (object == null) {
+                        break;
+                    }
+                }
+                
+                // Validate object before returning; skip invalid ones within the same deadline
+                if (isReady(object)) {
+                    break;
+                }
+                discard(object);
+                discarded++;
+            }
+            
+            if (discarded > 0) {
+                recordDiscarded(discarded);
+            }
+            if (pool.size() < minIdle) {
+                requestReplenish();
+            }
+            
+            if (object != null) {
+                object.reset();
+                long now = System.nanoTime();
+                markBorrowed(object, now, Thread.currentThread(), sampleBorrowSite());
+                acquireWait.record(now - start);
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Acquired object from pool");
+                }
+            }
+            
+            return object;
+        }
+        
+        /**
+         * Park the calling thread on a waiter until a released or newly created object is
+         * handed to it.
+         */
+        private T awaitObject(long timeout, TimeUnit unit) throws InterruptedException {
+            if (waitMode == WaitMode.VIRTUAL_THREADS) {
+                return awaitSignal(unit.toNanos(timeout));
+            }
+            
+            Waiter<T> waiter = enqueueWaiter(false);
+            tryStartCreation();
+            try {
+                return waiter.get(timeout, unit);
+            } catch (TimeoutException e) {
+                // Lost the race against a release: the object is ours after all
+                return waiter.cancel(false) || waiter.isCompletedExceptionally() ? null : waiter.getNow(null);
+            } catch (InterruptedException e) {
+                if (!waiter.cancel(false) && !waiter.isCompletedExceptionally()) {
+                    returnToPool(waiter.getNow(null));
+                }
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    throw new RejectedExecutionException(e.getCause().getMessage(), e.getCause());
+                }
+                // Failed by shutdown
+                throw new IllegalStateException("Pool is shutdown", e);
+            } catch (CancellationException e) {
+                throw new IllegalStateException("Pool is shutdown", e);
+            }
+        }
+        
+        /**
+         * Wait on the shared condition until an idle object can be polled.
+         * 
+         * The waiter count is published before polling and releases offer before reading it,
+         * so either the poll sees the object or the release sees the waiter and signals.
+         */
+        private T awaitSignal(long timeoutNanos) throws InterruptedException {
+            long remaining = timeoutNanos;
+            waitLock.lock();
+            lockWaiters.incrementAndGet();
+            try {
+                T object;
+                while ((object = pool.poll()) == null) {
+                    if (isShutdown) {
+                        throw new IllegalStateException("Pool is shutdown");
+                    }
+                    if (breaker != null && breaker.isRejecting()) {
+                        throw circuitOpen();
+                    }
+                    tryStartCreation();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                return object;
+            } finally {
+                lockWaiters.decrementAndGet();
+                waitLock.unlock();
+            }
+        }
+        
+        private void signalLockWaiters(boolean all) {
+            if (lockWaiters.get() > 0) {
+                waitLock.lock();
+                try {
+                    if (all) {
+                        available.signalAll();
+                    } else {
+                        available.signal();
+                    }
+                } finally {
+                    waitLock.unlock();
+                }
+            }
+        }
+        
+        /**
+         * Acquire an object without blocking the caller.
+         * 
+         * The returned future completes immediately when an idle object is available; otherwise
+         * it is queued and completed in FIFO order by {@link #release(Poolable)}. No thread is
+         * parked while waiting. If the caller cancels the future and {@code cancel} returns
+         * {@code false}, the object was already handed over and must still be released.
+         */
+        public CompletableFuture<T> acquireAsync() {
+            return acquireAsync(5, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Acquire an object without blocking the caller, failing with a
+         * {@link TimeoutException} if none is handed over within the timeout.
+         */
+        public CompletableFuture<T> acquireAsync(long timeout, TimeUnit unit) {
+            if (isShutdown) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Pool is shutdown"));
+            }
+            
+            totalAcquisitions.incrementAndGet();
+            long start = System.nanoTime();
+            
+            T object = pollValid();
+            if (pool.size() < minIdle) {
+                requestReplenish();
+            }
+            if (object != null) {
+                object.reset();
+                long now = System.nanoTime();
+                markBorrowed(object, now, Thread.currentThread(), sampleBorrowSite());
+                acquireWait.record(now - start);
+                return CompletableFuture.completedFuture(object);
+            }
+            
+            if (breaker != null && breaker.isRejecting()) {
+                tryStartCreation();
+                totalAcquisitions.decrementAndGet();
+                return CompletableFuture.failedFuture(circuitOpen());
+            }
+            
+            Waiter<T> waiter = enqueueWaiter(true);
+            waiter.orTimeout(timeout, unit);
+            
+            // Grow the pool in the background instead of on the caller's thread
+            tryStartCreation();
+            return waiter;
+        }
+        
+        /**
+         * Poll idle objects until a valid one is found, closing any invalid ones on the way.
+         */
+        private T pollValid() {
+            T object;
+            int discarded = 0;
+            while ((object = pool.poll()) != null && !isReady(object)) {
+                discard(object);
+                discarded++;
+            }
+            if (discarded > 0) {
+                recordDiscarded(discarded);
+            }
             return object;
         }
         
+        private void recordDiscarded(int discarded) {
+            discardedCount.addAndGet(discarded);
+            maxDiscardedPerAcquisition.accumulateAndGet(discarded, Math::max);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine(() -> "Discarded " + discarded + " invalid objects during acquisition");
+            }
+        }
+        
+        private Waiter<T> enqueueWaiter(boolean async) {
+            Waiter<T> waiter = new Waiter<>(System.nanoTime(), async, async ? sampleBorrowSite() : null);
+            // Timed out and cancelled waiters drop out of the queue straight away
+            waiter.whenComplete((object, failure) -> {
+                if (failure != null && waiters.remove(waiter)) {
+                    waiterCount.decrementAndGet();
+                }
+            });
+            // Counted before it is visible, so a concurrent poll never takes the count below zero
+            waiterCount.incrementAndGet();
+            waiters.offer(waiter);
+            dispatch();
+            return waiter;
+        }
+        
+        private Waiter<T> pollWaiter() {
+            Waiter<T> waiter = waiters.poll();
+            if (waiter != null) {
+                waiterCount.decrementAndGet();
+            }
+            return waiter;
+        }
+        
+        /**
+         * Make a valid object available again without counting it as a release.
+         */
+        private void returnToPool(T object) {
+            offerIdle(object);
+            dispatch();
+            signalLockWaiters(false);
+        }
+        
+        private void offerIdle(T object) {
+            if (!pool.offer(object)) {
+                // Should not happen while releases are checked; retire the object properly anyway
+                discard(object);
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning("Idle store full; closed surplus object");
+                }
+            }
+        }
+        
+        /**
+         * Hand idle objects to waiters in arrival order.
+         * 
+         * Both sides publish first (a waiter enqueues, a release offers) and then call this
+         * method, so at least one of them always sees the other and no wakeup is lost.
+         */
+        private void dispatch() {
+            while (!waiters.isEmpty()) {
+                T object = pollValid();
+                if (object == null) {
+                    return;
+                }
+                
+                object.reset();
+                boolean handed = false;
+                Waiter<T> waiter;
+                while (!handed && (waiter = pollWaiter()) != null) {
+                    handed = handOff(waiter, object);
+                }
+                if (!handed) {
+                    // Every waiter gave up; park the object and re-check for newcomers
+                    offerIdle(object);
+                }
+            }
+        }
+        
+        /**
+         * Complete a waiter with an object. Blocking borrowers record their own metrics once
+         * they wake up; asynchronous ones are accounted for here.
+         */
+        private boolean handOff(Waiter<T> waiter, T object) {
+            if (!waiter.async) {
+                return waiter.complete(object);
+            }
+            long now = System.nanoTime();
+            // Stamp before completing: the borrower may release on another thread right away
+            markBorrowed(object, now, waiter.thread, waiter.borrowSite);
+            if (waiter.complete(object)) {
+                acquireWait.record(now - waiter.enqueuedAt);
+                return true;
+            }
+            markBorrowed(object, 0, null, null);
+            return false;
+        }
+        
+        /**
+         * Capture the borrower's stack for one borrow in {@code leakStackSampleRate}. Must run
+         * on the borrowing thread, inside the call that asked for the object.
+         */
+        private Throwable sampleBorrowSite() {
+            return leakThresholdNanos > 0 && ThreadLocalRandom.current().nextInt(leakStackSampleRate) == 0
+                ? new Throwable("Borrowed here") : null;
+        }
+        
+        private void markBorrowed(T object, long borrowedAt, Thread borrower, Throwable borrowSite) {
+            PooledEntry entry = entries.get(object);
+            if (entry != null) {
+                if (leakThresholdNanos > 0) {
+                    entry.borrower = borrower;
+                    entry.borrowSite = borrowSite;
+                }
+                entry.borrowedAt = borrowedAt;
+            }
+        }
+        
+        private void recordHoldTime(PooledEntry entry, long borrowedAt) {
+            holdTime.record(System.nanoTime() - borrowedAt);
+            if (leakThresholdNanos > 0) {
+                entry.borrower = null;
+                entry.borrowSite = null;
+            }
+        }
+        
+        /**
+         * Scan borrowed objects for ones held past the leak threshold. Each borrow is reported
+         * once; with reclaiming on, its object is closed and the slot goes back to the pool.
+         */
+        private void detectLeaks() {
+            if (isShutdown) {
+                return;
+            }
+            try {
+                long now = System.nanoTime();
+                for (Map.Entry<T, PooledEntry> mapping : entries.entrySet()) {
+                    PooledEntry entry = mapping.getValue();
+                    long borrowedAt = entry.borrowedAt;
+                    if (borrowedAt == 0 || now - borrowedAt < leakThresholdNanos || entry.flaggedBorrow == borrowedAt) {
+                        continue;
+                    }
+                    entry.flaggedBorrow = borrowedAt;
+                    leakedCount.incrementAndGet();
+                    LeakReport report = toLeakReport(mapping.getKey(), entry, borrowedAt, now);
+                    
+                    boolean reclaimed = reclaimLeaks && reclaim(mapping.getKey(), entry, borrowedAt);
+                    if (reclaimed) {
+                        reclaimedCount.incrementAndGet();
+                        mapping.getKey().close();
+                        releaseSlot();
+                        if (!waiters.isEmpty() || lockWaiters.get() > 0) {
+                            tryStartCreation();
+                        }
+                    }
+                    
+                    if (logger.isLoggable(Level.WARNING)) {
+                        Throwable site = entry.borrowSite;
+                        logger.log(Level.WARNING, "Pool " + name + " suspected leak" + (reclaimed ? " (reclaimed): " : ": ")
+                            + report, site);
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Pool leak detection failed: " + e.getMessage());
+                }
+            }
+        }
+        
+        /**
+         * Take a leaked object back from its borrower. The borrow is claimed the same way
+         * {@link #release} claims it, so exactly one of the two wins; the object is marked
+         * retired first so a release racing with the claim is recognised.
+         */
+        private boolean reclaim(T object, PooledEntry entry, long borrowedAt) {
+            retired.add(object);
+            if (PooledEntry.BORROWED_AT.compareAndSet(entry, borrowedAt, 0) && entries.remove(object, entry)) {
+                return true;
+            }
+            retired.remove(object);
+            return false;
+        }
+        
+        private LeakReport toLeakReport(T object, PooledEntry entry, long borrowedAt, long now) {
+            Thread borrower = entry.borrower;
+            Throwable site = entry.borrowSite;
+            return new LeakReport(object, borrower != null ? borrower.getName() : "unknown",
+                TimeUnit.NANOSECONDS.toMillis(now - borrowedAt), callerFrames(site));
+        }
+        
+        // Drop the pool's own frames so the report starts at the code that borrowed
+        private static StackTraceElement[] callerFrames(Throwable site) {
+            if (site == null) {
+                return new StackTraceElement[0];
+            }
+            StackTraceElement[] frames = site.getStackTrace();
+            int first = 0;
+            while (first < frames.length && isPoolFrame(frames[first])) {
+                first++;
+            }
+            return Arrays.copyOfRange(frames, first, frames.length);
+        }
+        
+        private static boolean isPoolFrame(StackTraceElement frame) {
+            String className = frame.getClassName();
+            return className.equals(ConnectionPool.class.getName())
+                || className.equals(KeyedConnectionPool.class.getName());
+        }
+        
+        /**
+         * Objects currently borrowed for longer than the leak threshold; empty when leak
+         * detection is off.
+         */
+        public List<LeakReport> getSuspectedLeaks() {
+            List<LeakReport> leaks = new ArrayList<>();
+            if (leakThresholdNanos > 0) {
+                long now = System.nanoTime();
+                for (Map.Entry<T, PooledEntry> mapping : entries.entrySet()) {
+                    long borrowedAt = mapping.getValue().borrowedAt;
+                    if (borrowedAt != 0 && now - borrowedAt >= leakThresholdNanos) {
+                        leaks.add(toLeakReport(mapping.getKey(), mapping.getValue(), borrowedAt, now));
+                    }
+                }
+            }
+            return leaks;
+        }
+        
+        /**
+         * Release an object back to the pool.
+         */
+        public void release(T object) {
+            if (object == null) {
+                return;
+            }
+            
+            PooledEntry entry = entries.get(object);
+            long borrowedAt = entry != null ? entry.borrowedAt : 0;
+            if (borrowedAt == 0 || !PooledEntry.BORROWED_AT.compareAndSet(entry, borrowedAt, 0)) {
+                rejectRelease(object, entry != null);
+                return;
+            }
+            
+            totalReleases.incrementAndGet();
+            recordHoldTime(entry, borrowedAt);
+            
+            if (isShutdown) {
+                // Draining: the object comes back only to be closed
+                discard(object);
+                signalDrained();
+            } else if (isReady(object)) {
+                returnToPool(object);
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Released object to pool");
+                }
+            } else {
+                // Object is invalid, close it
+                discard(object);
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Closed invalid object");
+                }
+            }
+        }
+        
+        /**
+         * Handle a release that has no borrow to claim. Objects the pool took back from their
+         * borrower (reclaimed leaks, loans closed at the shutdown deadline) were closed back
+         * then; anything else is left alone, since the pool either never owned it or has
+         * already put it back.
+         */
+        private void rejectRelease(T object, boolean tracked) {
+            if (retired.remove(object)) {
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Dropped late release of an object closed while on loan");
+                }
+            } else if (tracked) {
+                // Already released: letting it through would put the object in the idle store twice
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Pool " + name + " rejected a release of an object that is not on loan");
+                }
+            } else if (logger.isLoggable(Level.WARNING)) {
+                logger.warning(() -> "Pool " + name + " ignored a release of an object it does not own");
+            }
+        }
+        
+        /**
+         * Copy the current counters into {@code into}, indexed by {@link StatField} ordinal,
+         * without allocating. Meant for monitoring loops that poll many pools often.
+         * 
+         * @throws IllegalArgumentException if the array is shorter than {@link StatField#COUNT}
+         */
+        public void snapshotStats(long[] into) {
+            if (into.length < StatField.COUNT) {
+                throw new IllegalArgumentException("Stats array needs " + StatField.COUNT + " slots");
+            }
+            long acquisitions = totalAcquisitions.get();
+            long releases = totalReleases.get();
+            long reclaimed = reclaimedCount.get();
+            into[StatField.IDLE.ordinal()] = pool.size();
+            into[StatField.MAX_SIZE.ordinal()] = maxSize;
+            into[StatField.EFFECTIVE_MAX_SIZE.ordinal()] = effectiveMaxSize;
+            into[StatField.CREATED.ordinal()] = createdCount.get();
+            into[StatField.ACTIVE.ordinal()] = acquisitions - releases - reclaimed;
+            into[StatField.ACQUISITIONS.ordinal()] = acquisitions;
+            into[StatField.RELEASES.ordinal()] = releases;
+            into[StatField.EVICTED.ordinal()] = evictedCount.get();
+            into[StatField.DISCARDED.ordinal()] = discardedCount.get();
+            into[StatField.LEAKED.ordinal()] = leakedCount.get();
+            into[StatField.RECLAIMED.ordinal()] = reclaimed;
+            into[StatField.RESIZES.ordinal()] = sizing != null ? sizing.resizeCount : 0;
+            into[StatField.CIRCUIT_TRIPS.ordinal()] = getCircuitTripCount();
+            into[StatField.CIRCUIT_STATE.ordinal()] = getCircuitState().ordinal();
+        }
+        
+        /**
+         * Get current pool statistics.
+         */
+        public PoolStats getStats() {
+            return new PoolStats(
+                pool.size(),
+                maxSize,
+                createdCount.get(),
+                totalAcquisitions.get(),
+                totalReleases.get(),
+                evictedCount.get(),
+                discardedCount.get(),
+                maxDiscardedPerAcquisition.get(),
+                effectiveMaxSize,
+                sizing != null ? sizing.resizeCount : 0,
+                sizing != null ? sizing.recentResizes() : Collections.emptyList(),
+                leakedCount.get(),
+                reclaimedCount.get()
+            );
+        }
+        
+        /**
+         * Shut down without waiting: idle objects are closed straight away and borrowed ones
+         * when they are released. Nothing is closed under a borrower.
+         */
+        public void shutdown() {
+            try {
+                shutdown(0, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        /**
+         * Drain and shut down the pool.
+         * 
+         * New acquisitions fail at once and blocked callers are woken with an
+         * {@link IllegalStateException}. Idle objects are closed in parallel, and borrowed ones
+         * are closed as they are released. Whatever is still on loan at the deadline is closed
+         * under its borrower; a release after that is dropped. Also valid after
+         * {@link #shutdown()}, to bound how long outstanding loans may take.
+         * 
+         * @return true if every borrowed object came back before the deadline
+         */
+        public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+            return shutdown(unit.toNanos(timeout), true);
+        }
+        
+        private boolean shutdown(long timeoutNanos, boolean closeLoans) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            if (!shutdownStarted.compareAndSet(false, true)) {
+                try {
+                    return awaitDrained(deadline);
+                } finally {
+                    if (closeLoans) {
+                        closeOnLoan();
+                    }
+                }
+            }
+            
+            isShutdown = true;
+            maintainer.shutdownNow();
+            creator.shutdown();
+            
+            Waiter<T> waiter;
+            while ((waiter = pollWaiter()) != null) {
+                waiter.completeExceptionally(new IllegalStateException("Pool is shutdown"));
+            }
+            signalLockWaiters(true);
+            
+            boolean clean;
+            try {
+                clean = awaitDrained(deadline);
+            } finally {
+                if (closeLoans) {
+                    closeOnLoan();
+                }
+                unregisterMBean();
+            }
+            
+            if (logger.isLoggable(Level.INFO)) {
+                logger.info("Connection pool shutdown completed");
+            }
+            return clean;
+        }
+        
+        /**
+         * Close idle objects as they turn up until nothing is tracked and no creation is in
+         * flight, or the deadline passes.
+         */
+        private boolean awaitDrained(long deadline) throws InterruptedException {
+            while (true) {
+                List<T> idle = new ArrayList<>();
+                T object;
+                while ((object = pool.poll()) != null) {
+                    idle.add(object);
+                }
+                closeInParallel(idle);
+                
+                if (entries.isEmpty() && pendingCreations.get() == 0) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                waitLock.lock();
+                try {
+                    // Bounded slices also pick up objects that raced back into the idle store
+                    drained.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)));
+                } finally {
+                    waitLock.unlock();
+                }
+            }
+        }
+        
+        /**
+         * Close everything still tracked once the drain deadline has passed. Each borrow is
+         * claimed like a leak reclaim, so the borrower's late release is recognised and dropped.
+         */
+        private void closeOnLoan() {
+            List<T> onLoan = new ArrayList<>();
+            for (Map.Entry<T, PooledEntry> mapping : entries.entrySet()) {
+                T object = mapping.getKey();
+                long borrowedAt = mapping.getValue().borrowedAt;
+                if (borrowedAt != 0) {
+                    retired.add(object);
+                    if (!PooledEntry.BORROWED_AT.compareAndSet(mapping.getValue(), borrowedAt, 0)) {
+                        // Released just now; that release closes it
+                        retired.remove(object);
+                        continue;
+                    }
+                }
+                onLoan.add(object);
+            }
+            if (!onLoan.isEmpty()) {
+                closeInParallel(onLoan);
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Pool " + name + " closed " + onLoan.size()
+                        + " objects still on loan at the shutdown deadline");
+                }
+            }
+        }
+        
+        private void signalDrained() {
+            waitLock.lock();
+            try {
+                drained.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+        
+        private void closeInParallel(List<T> objects) {
+            if (objects.size() > 1) {
+                objects.parallelStream().forEach(this::discard);
+            } else {
+                objects.forEach(this::discard);
+            }
+        }
+        
+        private void unregisterMBean() {
+            if (mbeanName != null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+                } catch (JMException e) {
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.fine(() -> "Could not unregister pool MBean: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        
+        public boolean isShutdown() {
+            return isShutdown;
+        }
+        
+        /**
+         * Get acquire wait, hold and creation time percentiles.
+         */
+        public LatencyStats getLatencyStats() {
+            return new LatencyStats(acquireWait.snapshot(), holdTime.snapshot(), creationTime.snapshot());
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getIdleCount() {
+            return pool.size();
+        }
+        
+        public int getCreatedCount() {
+            return createdCount.get();
+        }
+        
+        public int getMaxSize() {
+            return maxSize;
+        }
+        
+        /**
+         * Current creation limit: maxSize, or wherever adaptive sizing has set it.
+         */
+        public int getEffectiveMaxSize() {
+            return effectiveMaxSize;
+        }
+        
+        public PoolMode getMode() {
+            return mode;
+        }
+        
+        public WaitMode getWaitMode() {
+            return waitMode;
+        }
+        
+        public HandoutPolicy getHandoutPolicy() {
+            return handoutPolicy;
+        }
+        
+        /**
+         * Circuit breaker state; always CLOSED when no breaker is configured.
+         */
+        public CircuitState getCircuitState() {
+            return breaker != null ? breaker.state.get() : CircuitState.CLOSED;
+        }
+        
+        /**
+         * Number of times the circuit breaker has tripped open.
+         */
+        public long getCircuitTripCount() {
+            return breaker != null ? breaker.tripCount.get() : 0;
+        }
+        
+        public int getMinIdle() {
+            return minIdle;
+        }
+        
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+    }
+    
+    /**
+     * Refresh a watchlist by partitioning its symbols across several pooled connections.
+     * 
+     * The symbol list is split into at most {@code connections} contiguous partitions; each
+     * partition borrows one connection on the given executor and fetches all of its symbols
+     * as a pipelined batch. Refresh time therefore follows the number of batches per
+     * connection rather than the number of symbols.
+     * 
+     * @return quotes keyed by symbol; symbols whose connection could not be acquired are missing
+     */
+    public static Map<String, MarketQuote> fetchWatchlist(ConnectionPool<MarketConnection> pool,
+                                                          List<String> symbols, int connections,
+                                                          Executor executor) {
+        Objects.requireNonNull(pool, "Pool cannot be null");
+        Objects.requireNonNull(symbols, "Symbols cannot be null");
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        if (connections <= 0) {
+            throw new IllegalArgumentException("Connection count must be positive");
+        }
+        
+        int partitions = Math.min(connections, symbols.size());
+        List<CompletableFuture<Map<String, MarketQuote>>> fetches = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            List<String> partition = symbols.subList(
+                (int) ((long) symbols.size() * i / partitions),
+                (int) ((long) symbols.size() * (i + 1) / partitions));
+            fetches.add(CompletableFuture.supplyAsync(() -> fetchPartition(pool, partition), executor));
+        }
+        
+        Map<String, MarketQuote> quotes = new HashMap<>(Math.max(16, symbols.size() * 2));
+        for (CompletableFuture<Map<String, MarketQuote>> fetch : fetches) {
+            quotes.putAll(fetch.join());
+        }
+        return quotes;
+    }
+    
+    private static Map<String, MarketQuote> fetchPartition(ConnectionPool<MarketConnection> pool,
+                                                          List<String> partition) {
+        MarketConnection connection;
+        try {
+            connection = pool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
+        }
+        if (connection == null) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.warning(() -> "Could not acquire connection for " + partition.size() + " symbols");
+            }
+            return Collections.emptyMap();
+        }
+        
+        try {
+            return connection.fetchMarketData(partition);
+        } finally {
+            pool.release(connection);
+        }
+    }
+    
+    /**
+     * Pool of pools keyed by market endpoint.
+     * 
+     * Each key gets its own {@link ConnectionPool} stripe, capped at a per-key maximum, and all
+     * stripes draw from one global {@link ConnectionPool.SharedCapacity}. When a key runs dry
+     * while the global budget is used up, an idle connection is closed on the key holding the
+     * most idle ones, so a hot venue can borrow headroom from quiet ones.
+     */
+    public static class KeyedConnectionPool<K, T extends Poolable> {
+        private final ConcurrentHashMap<K, Stripe> pools;
+        private final KeyedPoolableFactory<K, T> factory;
+        private final ConnectionPool.SharedCapacity capacity;
+        private final int maxPerKey;
+        private final int minIdlePerKey;
+        private final ConnectionPool.PoolMode mode;
+        private volatile boolean isShutdown;
+        
+        /**
+         * Factory interface for creating poolable objects for a given key.
+         */
+        public interface KeyedPoolableFactory<K, T extends Poolable> {
+            T create(K key);
+        }
+        
+        /**
+         * One key's slot in the map. The stripe itself is cheap to publish; its pool is built and
+         * warmed on first use under the stripe's own lock, so racing first uses of a key build
+         * one pool between them and a slow warm-up never holds the map's bin lock.
+         */
+        private final class Stripe {
+            private final K key;
+            private final ReentrantLock lock = new ReentrantLock();
+            private volatile ConnectionPool<T> pool;
+            
+            Stripe(K key) {
+                this.key = key;
+            }
+            
+            ConnectionPool<T> pool() {
+                ConnectionPool<T> built = pool;
+                if (built != null) {
+                    return built;
+                }
+                lock.lock();
+                try {
+                    if (pool == null) {
+                        pool = new ConnectionPool.Builder<T>(maxPerKey, () -> factory.create(key))
+                            .setName("keyed-" + key)
+                            .setMode(mode)
+                            .setMinIdle(minIdlePerKey)
+                            .setSharedCapacity(capacity)
+                            .build();
+                    }
+                    return pool;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        
+        /**
+         * Create a keyed pool with a global and a per-key size limit.
+         */
+        public KeyedConnectionPool(int maxTotal, int maxPerKey, KeyedPoolableFactory<K, T> factory) {
+            this(maxTotal, maxPerKey, 0, ConnectionPool.PoolMode.QUEUE, factory);
+        }
+        
+        /**
+         * Create a keyed pool with size limits, per-key warm connections and idle storage mode.
+         */
+        public KeyedConnectionPool(int maxTotal, int maxPerKey, int minIdlePerKey,
+                                   ConnectionPool.PoolMode mode, KeyedPoolableFactory<K, T> factory) {
+            if (maxPerKey <= 0 || maxPerKey > maxTotal) {
+                throw new IllegalArgumentException("Expected 0 < maxPerKey <= maxTotal");
+            }
+            if (minIdlePerKey < 0 || minIdlePerKey > maxPerKey) {
+                throw new IllegalArgumentException("Expected 0 <= minIdlePerKey <= maxPerKey");
+            }
+            
+            this.pools = new ConcurrentHashMap<>();
+            this.factory = Objects.requireNonNull(factory, "Factory cannot be null");
+            this.capacity = new ConnectionPool.SharedCapacity(maxTotal);
+            this.maxPerKey = maxPerKey;
+            this.minIdlePerKey = minIdlePerKey;
+            this.mode = Objects.requireNonNull(mode, "Pool mode cannot be null");
+            this.isShutdown = false;
+        }
+        
+        private ConnectionPool<T> poolFor(K key) {
+            Objects.requireNonNull(key, "Key cannot be null");
+            if (isShutdown) {
+                throw new IllegalStateException("Pool is shutdown");
+            }
+            // computeIfAbsent only publishes the stripe; the factory runs later, outside the bin lock
+            ConnectionPool<T> pool = pools.computeIfAbsent(key, Stripe::new).pool();
+            if (isShutdown) {
+                // Built after shutdown took its snapshot of the stripes
+                pool.shutdown();
+                throw new IllegalStateException("Pool is shutdown");
+            }
+            return pool;
+        }
+        
+        /**
+         * The key's pool if one has been built, without creating it.
+         */
+        private ConnectionPool<T> existingPool(K key) {
+            Stripe stripe = pools.get(key);
+            return stripe != null ? stripe.pool : null;
+        }
+        
+        private List<ConnectionPool<T>> builtPools() {
+            List<ConnectionPool<T>> built = new ArrayList<>(pools.size());
+            for (Stripe stripe : pools.values()) {
+                ConnectionPool<T> pool = stripe.pool;
+                if (pool != null) {
+                    built.add(pool);
+                }
+            }
+            return built;
+        }
+        
         /**
-         * Release an object back to the pool.
+         * Acquire an object for the given key.
          */
-        public void release(T object) {
-            if (object == null || isShutdown) {
+        public T acquire(K key) throws InterruptedException {
+            return acquire(key, 5, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Acquire an object for the given key with timeout.
+         */
+        public T acquire(K key, long timeout, TimeUnit unit) throws InterruptedException {
+            ConnectionPool<T> pool = poolFor(key);
+            makeRoomFor(key, pool);
+            return pool.acquire(timeout, unit);
+        }
+        
+        /**
+         * Acquire an object for the given key without blocking the caller.
+         */
+        public CompletableFuture<T> acquireAsync(K key, long timeout, TimeUnit unit) {
+            ConnectionPool<T> pool = poolFor(key);
+            makeRoomFor(key, pool);
+            return pool.acquireAsync(timeout, unit);
+        }
+        
+        /**
+         * Release an object back to the pool of the key it was acquired for.
+         */
+        public void release(K key, T object) {
+            ConnectionPool<T> pool = existingPool(key);
+            if (pool != null) {
+                pool.release(object);
+            } else if (object != null) {
+                object.close();
+            }
+        }
+        
+        /**
+         * Rebalance before borrowing: if this key has nothing idle and could still grow but the
+         * global budget is exhausted, close one idle object on the key with the most idle ones.
+         */
+        private void makeRoomFor(K key, ConnectionPool<T> pool) {
+            if (pool.getIdleCount() > 0 || pool.getCreatedCount() >= maxPerKey || capacity.hasHeadroom()) {
                 return;
             }
             
-            totalReleases.incrementAndGet();
-            
-            if (object.isValid()) {
-                boolean offered = pool.offer(object);
-                if (!offered) {
-                    // Pool is full, close the object
-                    object.close();
-                    createdCount.decrementAndGet();
-                }
-                if (logger.isLoggable(Level.FINE)) {
-                    logger.fine(() -> "Released object to pool (offered: " + offered + ")");
+            ConnectionPool<T> donor = null;
+            int donorIdle = 0;
+            for (Map.Entry<K, Stripe> candidate : pools.entrySet()) {
+                ConnectionPool<T> candidatePool = candidate.getValue().pool;
+                if (candidatePool == null || candidate.getKey().equals(key)) {
+                    continue;
                 }
-            } else {
-                // Object is invalid, close it
-                object.close();
-                createdCount.decrementAndGet();
-                if (logger.isLoggable(Level.FINE)) {
-                    logger.fine("Closed invalid object");
+                int idle = candidatePool.getIdleCount();
+                if (idle > donorIdle) {
+                    donor = candidatePool;
+                    donorIdle = idle;
                 }
             }
+            
+            if (donor != null && donor.closeIdle(1) > 0 && logger.isLoggable(Level.FINE)) {
+                String donorName = donor.getName();
+                logger.fine(() -> "Moved idle capacity from " + donorName + " to " + pool.getName());
+            }
         }
         
         /**
-         * Get current pool statistics.
+         * Get statistics for one key, or null if the key has never been used.
          */
-        public PoolStats getStats() {
-            return new PoolStats(
-                pool.size(),
-                maxSize,
-                createdCount.get(),
-                totalAcquisitions.get(),
-                totalReleases.get()
-            );
+        public ConnectionPool.PoolStats getStats(K key) {
+            ConnectionPool<T> pool = existingPool(key);
+            return pool != null ? pool.getStats() : null;
+        }
+        
+        public Set<K> getKeys() {
+            return Collections.unmodifiableSet(pools.keySet());
+        }
+        
+        public int getTotalCreated() {
+            return capacity.getUsed();
+        }
+        
+        public int getMaxTotal() {
+            return capacity.getLimit();
         }
         
         /**
-         * Shutdown the pool and close all objects.
+         * Shutdown every per-key pool.
          */
         public void shutdown() {
             isShutdown = true;
+            builtPools().forEach(ConnectionPool::shutdown);
             
-            T object;
-            while ((object = pool.poll()) != null) {
-                object.close();
+            if (logger.isLoggable(Level.INFO)) {
+                logger.info("Keyed connection pool shutdown completed");
+            }
+        }
+        
+        /**
+         * Drain every key's pool against one shared deadline. Every pool stops lending and
+         * starts draining first, then each is awaited in turn, so loans on any key have until
+         * the deadline to come back however the keys happen to be ordered.
+         * 
+         * @return true if every borrowed object came back before the deadline
+         * @see ConnectionPool#shutdown(long, TimeUnit)
+         */
+        public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            isShutdown = true;
+            List<ConnectionPool<T>> draining = builtPools();
+            draining.forEach(ConnectionPool::shutdown);
+            
+            boolean clean = true;
+            for (ConnectionPool<T> pool : draining) {
+                clean &= pool.shutdown(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
             }
             
             if (logger.isLoggable(Level.INFO)) {
-                logger.info("Connection pool shutdown completed");
+                logger.info("Keyed connection pool shutdown completed");
             }
+            return clean;
         }
         
         public boolean isShutdown() {
@@ -383,6 +3205,412 @@ public class ObjectPoolPattern {
         }
     }
     
+    /**
+     * Streams the stats of registered pools to a file or socket at a fixed interval.
+     * 
+     * Each tick writes one line per pool: {@code <epochMillis> <poolName> <v0> <v1> ...} with
+     * values in {@link StatField} order, after a {@code #} header line naming the fields. Lines
+     * are encoded by hand into a reused buffer from per-pool snapshot arrays, so a steady-state
+     * tick allocates nothing.
+     */
+    public static final class StatsExporter implements AutoCloseable {
+        private static final int MAX_LINE_BYTES = 512;
+        
+        private final WritableByteChannel channel;
+        private final long intervalMillis;
+        private final ScheduledExecutorService scheduler;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        // Long.MIN_VALUE is 19 digits plus the sign
+        private final byte[] digits = new byte[20];
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        // Copy-on-write so the export loop can index it without an iterator
+        private volatile Registration[] registrations = new Registration[0];
+        private boolean failing;
+        
+        private static final class Registration {
+            private final ConnectionPool<?> pool;
+            private final byte[] name;
+            private final long[] values = new long[StatField.COUNT];
+            
+            Registration(ConnectionPool<?> pool) {
+                this.pool = pool;
+                this.name = pool.getName().replace(' ', '_').getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        
+        public StatsExporter(WritableByteChannel channel, long interval, TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("Export interval must be positive");
+            }
+            this.channel = Objects.requireNonNull(channel, "Channel cannot be null");
+            this.intervalMillis = unit.toMillis(interval);
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("pool-stats-exporter"));
+        }
+        
+        /**
+         * Append to a local file, creating it if needed.
+         */
+        public static StatsExporter toFile(Path file, long interval, TimeUnit unit) throws IOException {
+            return new StatsExporter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND), interval, unit);
+        }
+        
+        /**
+         * Stream to a collector listening on a socket.
+         */
+        public static StatsExporter toSocket(InetSocketAddress address, long interval, TimeUnit unit) throws IOException {
+            return new StatsExporter(SocketChannel.open(address), interval, unit);
+        }
+        
+        public synchronized StatsExporter register(ConnectionPool<?> pool) {
+            Registration[] current = registrations;
+            Registration[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = new Registration(pool);
+            registrations = next;
+            return this;
+        }
+        
+        public synchronized void unregister(ConnectionPool<?> pool) {
+            Registration[] current = registrations;
+            int kept = 0;
+            Registration[] next = new Registration[current.length];
+            for (Registration registration : current) {
+                if (registration.pool != pool) {
+                    next[kept++] = registration;
+                }
+            }
+            registrations = Arrays.copyOf(next, kept);
+        }
+        
+        /**
+         * Write the header and start exporting every interval.
+         */
+        public void start() throws IOException {
+            if (!started.compareAndSet(false, true)) {
+                throw new IllegalStateException("Exporter already started");
+            }
+            StringBuilder header = new StringBuilder("# epochMillis pool");
+            for (StatField field : StatField.values()) {
+                header.append(' ').append(field.name().toLowerCase(Locale.ROOT));
+            }
+            buffer.clear();
+            buffer.put(header.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+            flush();
+            scheduler.scheduleAtFixedRate(this::export, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        
+        private void export() {
+            try {
+                long now = System.currentTimeMillis();
+                Registration[] current = registrations;
+                buffer.clear();
+                for (Registration registration : current) {
+                    if (buffer.remaining() < MAX_LINE_BYTES + registration.name.length) {
+                        flush();
+                        buffer.clear();
+                    }
+                    registration.pool.snapshotStats(registration.values);
+                    putLong(now);
+                    buffer.put((byte) ' ').put(registration.name);
+                    for (long value : registration.values) {
+                        buffer.put((byte) ' ');
+                        putLong(value);
+                    }
+                    buffer.put((byte) '\n');
+                }
+                flush();
+                failing = false;
+            } catch (IOException | RuntimeException e) {
+                // Log once per outage rather than every tick
+                if (!failing && logger.isLoggable(Level.WARNING)) {
+                    logger.warning(() -> "Pool stats export failed: " + e.getMessage());
+                }
+                failing = true;
+            }
+        }
+        
+        private void putLong(long value) {
+            int start = encodeLong(value, digits);
+            buffer.put(digits, start, digits.length - start);
+        }
+        
+        /**
+         * Write the decimal form of {@code value} right-aligned into {@code digits}, which must
+         * hold at least 20 bytes, and return the index of its first byte.
+         */
+        static int encodeLong(long value, byte[] digits) {
+            int start = digits.length;
+            // Count in negatives: Long.MIN_VALUE has no positive counterpart to negate into
+            long remaining = value < 0 ? value : -value;
+            do {
+                digits[--start] = (byte) ('0' - remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+            if (value < 0) {
+                digits[--start] = '-';
+            }
+            return start;
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        
+        /**
+         * Stop exporting and close the channel.
+         */
+        @Override
+        public void close() throws IOException {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+    
+    /**
+     * Reusable byte buffer for serialization, cleared on every borrow.
+     */
+    public static final class PooledBuffer implements Poolable {
+        private final ByteBuffer buffer;
+        private volatile boolean closed;
+        
+        public PooledBuffer(int capacity, boolean direct) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Buffer capacity must be positive");
+            }
+            this.buffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        }
+        
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+        
+        /**
+         * Position back to zero and limit to capacity; old bytes stay until overwritten.
+         */
+        @Override
+        public void reset() {
+            buffer.clear();
+        }
+        
+        @Override
+        public boolean isValid() {
+            return !closed;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    /**
+     * Reusable {@link MessageDigest}, e.g. for order checksums. Provider lookup is paid once
+     * per pooled instance instead of once per message.
+     */
+    public static final class PooledDigest implements Poolable {
+        private final MessageDigest digest;
+        private volatile boolean closed;
+        
+        public PooledDigest(String algorithm) {
+            try {
+                this.digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Unsupported digest algorithm: " + algorithm, e);
+            }
+        }
+        
+        public MessageDigest digest() {
+            return digest;
+        }
+        
+        /**
+         * Discard any partially digested input.
+         */
+        @Override
+        public void reset() {
+            digest.reset();
+        }
+        
+        @Override
+        public boolean isValid() {
+            return !closed;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    /**
+     * Reusable {@link Cipher} for signing or encrypting orders. Every borrower must call
+     * {@link #init} with its own key before use, so nothing keyed by one borrower is handed to
+     * the next; re-initialising is far cheaper than {@code Cipher.getInstance}.
+     */
+    public static final class PooledCipher implements Poolable {
+        private final Cipher cipher;
+        private boolean initialized;
+        private volatile boolean closed;
+        
+        public PooledCipher(String transformation) {
+            try {
+                this.cipher = Cipher.getInstance(transformation);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalArgumentException("Unsupported cipher transformation: " + transformation, e);
+            }
+        }
+        
+        public Cipher init(int mode, Key key, AlgorithmParameterSpec params) throws GeneralSecurityException {
+            cipher.init(mode, key, params);
+            initialized = true;
+            return cipher;
+        }
+        
+        /**
+         * The cipher as initialised by this borrower.
+         * 
+         * @throws IllegalStateException if {@link #init} has not been called since the borrow
+         */
+        public Cipher cipher() {
+            if (!initialized) {
+                throw new IllegalStateException("Cipher must be initialised after borrowing");
+            }
+            return cipher;
+        }
+        
+        /**
+         * Forget the previous borrower's initialisation.
+         */
+        @Override
+        public void reset() {
+            initialized = false;
+        }
+        
+        @Override
+        public boolean isValid() {
+            return !closed;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    /**
+     * Reusable {@link MortgageApplication.Builder}; each borrower starts from defaults.
+     */
+    public static final class PooledMortgageBuilder implements Poolable {
+        private static final String BLANK_APPLICANT = "Pooled Applicant";
+        private static final double BLANK_AMOUNT = 1;
+        
+        private final MortgageApplication.Builder builder = new MortgageApplication.Builder(BLANK_APPLICANT, BLANK_AMOUNT);
+        private volatile boolean closed;
+        
+        /**
+         * Begin a new application on the pooled builder.
+         */
+        public MortgageApplication.Builder start(String applicantName, double requestedAmount) {
+            return builder.reset(applicantName, requestedAmount);
+        }
+        
+        /**
+         * Wipe the previous applicant's details.
+         */
+        @Override
+        public void reset() {
+            builder.reset(BLANK_APPLICANT, BLANK_AMOUNT);
+        }
+        
+        @Override
+        public boolean isValid() {
+            return !closed;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    /**
+     * Ready-made pools for in-process objects that are expensive to create, built on
+     * {@link ConnectionPool}.
+     */
+    public static final class PooledResources {
+        private PooledResources() {
+        }
+        
+        /**
+         * Pool settings for local objects: validity is a flag check, so every borrow validates
+         * and there is no background evictor.
+         */
+        public static <T extends Poolable> ConnectionPool.Builder<T> localObjects(int maxSize,
+                                                                               ConnectionPool.PoolableFactory<T> factory) {
+            return new ConnectionPool.Builder<>(maxSize, factory)
+                .setEvictionInterval(0, TimeUnit.MILLISECONDS);
+        }
+        
+        public static ConnectionPool<PooledBuffer> buffers(int maxSize, int capacity, boolean direct) {
+            return localObjects(maxSize, () -> new PooledBuffer(capacity, direct))
+                .setName("buffers-" + capacity)
+                .build();
+        }
+        
+        /**
+         * @throws IllegalArgumentException if the algorithm is not available
+         */
+        public static ConnectionPool<PooledDigest> digests(int maxSize, String algorithm) {
+            // Fail here rather than on a creator thread
+            new PooledDigest(algorithm);
+            return localObjects(maxSize, () -> new PooledDigest(algorithm))
+                .setName("digests-" + algorithm)
+                .build();
+        }
+        
+        /**
+         * @throws IllegalArgumentException if the transformation is not available
+         */
+        public static ConnectionPool<PooledCipher> ciphers(int maxSize, String transformation) {
+            new PooledCipher(transformation);
+            return localObjects(maxSize, () -> new PooledCipher(transformation))
+                .setName("ciphers-" + transformation)
+                .build();
+        }
+        
+        public static ConnectionPool<PooledMortgageBuilder> mortgageBuilders(int maxSize) {
+            return localObjects(maxSize, PooledMortgageBuilder::new)
+                .setName("mortgage-builders")
+                .build();
+        }
+        
+        /**
+         * Borrow an object, apply {@code action} and always give it back.
+         * 
+         * @throws IllegalStateException if no object became available in time
+         */
+        public static <T extends Poolable, R> R withPooled(ConnectionPool<T> pool, Function<? super T, ? extends R> action)
+                throws InterruptedException {
+            T object = pool.acquire();
+            if (object == null) {
+                throw new IllegalStateException("No pooled object available from " + pool.getName());
+            }
+            try {
+                return action.apply(object);
+            } finally {
+                pool.release(object);
+            }
+        }
+    }
+    
     /**
      * Example usage of Object Pool pattern for market connections.
      */
@@ -391,8 +3619,11 @@ public class ObjectPoolPattern {
         ConnectionPool.PoolableFactory<MarketConnection> factory = 
             () -> new MarketConnection("market-api.financialdata.com");
         
-        // Create connection pool
-        ConnectionPool<MarketConnection> pool = new ConnectionPool<>(5, factory);
+        // Create connection pool, keeping a few connections warm in the background
+        ConnectionPool<MarketConnection> pool = new ConnectionPool.Builder<>(5, factory)
+            .setMinIdle(3)
+            .setMaxIdle(4)
+            .build();
         
         // Display initial stats
         if (logger.isLoggable(Level.INFO)) {
@@ -405,6 +3636,7 @@ public class ObjectPoolPattern {
         // Display final stats
         if (logger.isLoggable(Level.INFO)) {
             logger.info(() -> "Final pool stats: " + pool.getStats());
+            logger.info(() -> "Final pool latency: " + pool.getLatencyStats());
         }
         
         // Shutdown pool
@@ -471,5 +3703,33 @@ public class ObjectPoolPattern {
             pool.release(conn2);
             pool.release(conn3);
         }
+        
+        // Pipeline several orders over one connection and wait for the acknowledgements together
+        MarketConnection pipelined = pool.acquire();
+        if (pipelined != null) {
+            try {
+                List<CompletableFuture<TradeAck>> acks = new ArrayList<>();
+                for (String symbol : symbols) {
+                    acks.add(pipelined.submitTrade(symbol, 10, 100.0));
+                }
+                CompletableFuture.allOf(acks.toArray(new CompletableFuture<?>[0])).join();
+                if (logger.isLoggable(Level.INFO)) {
+                    logger.info(() -> "Pipelined orders acknowledged: " + acks.size());
+                }
+            } finally {
+                pool.release(pipelined);
+            }
+        }
+        
+        // Borrow a connection without blocking the calling thread
+        pool.acquireAsync()
+            .thenAccept(connection -> {
+                try {
+                    connection.executeTrade("NVDA", 50, 420.0);
+                } finally {
+                    pool.release(connection);
+                }
+            })
+            .join();
     }
 }
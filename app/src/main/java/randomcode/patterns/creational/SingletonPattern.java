@@ -1,5 +1,13 @@
 package randomcode.patterns.creational;
 
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,24 +21,462 @@ import java.util.logging.Logger;
 public class SingletonPattern {
     private static final Logger logger = Logger.getLogger(SingletonPattern.class.getName());
     
+    /** Loan books at least this large are priced on the fork/join pool. */
+    public static final int PARALLEL_PRICING_THRESHOLD = 1 << 18;
+    
+    // Slice of the book each fork/join leaf prices sequentially
+    private static final int PRICING_LEAF_SIZE = 1 << 15;
+    
     // Thread-safe singleton holder
     private static class SingletonHolder {
         private static final SingletonPattern INSTANCE = new SingletonPattern();
     }
     
-    // Configuration data
-    private double baseInterestRate;
-    private final double creditRiskMultiplier;
-    private boolean isRateLocked;
+    /**
+     * Immutable, versioned snapshot of the rate configuration. Readers take the whole snapshot
+     * with a single load, so the base rate, multiplier and lock flag they see always belong
+     * together. Every change publishes a new snapshot with the next version, so a pricing batch
+     * can pin one snapshot and stamp each result with the version it was priced at.
+     */
+    public static final class RateSnapshot {
+        private final long version;
+        private final double baseInterestRate;
+        private final double creditRiskMultiplier;
+        private final boolean rateLocked;
+
+        RateSnapshot(long version, double baseInterestRate, double creditRiskMultiplier, boolean rateLocked) {
+            this.version = version;
+            this.baseInterestRate = baseInterestRate;
+            this.creditRiskMultiplier = creditRiskMultiplier;
+            this.rateLocked = rateLocked;
+        }
+
+        public long getVersion() { return version; }
+        public double getBaseInterestRate() { return baseInterestRate; }
+        public double getCreditRiskMultiplier() { return creditRiskMultiplier; }
+        public boolean isRateLocked() { return rateLocked; }
+
+        /**
+         * Effective rate at this snapshot. Unlike {@link SingletonPattern#calculateEffectiveRate}
+         * this doesn't log, so it's the one to call from a pricing loop.
+         */
+        public double calculateEffectiveRate(boolean isHighRisk) {
+            return isHighRisk ? baseInterestRate * creditRiskMultiplier : baseInterestRate;
+        }
+
+        /**
+         * Price a whole book in one pass: {@code rates[i]} receives the effective rate of
+         * loan {@code i}.
+         *
+         * @throws IllegalArgumentException if {@code rates} is shorter than {@code highRisk}
+         */
+        public void calculateEffectiveRates(boolean[] highRisk, double[] rates) {
+            checkBook(highRisk.length, rates);
+            priceRange(highRisk, rates, 0, highRisk.length, baseInterestRate, highRiskRate());
+        }
+
+        /**
+         * Same as {@link #calculateEffectiveRates(boolean[], double[])} for books stored as one
+         * risk-class byte per loan, where any non-zero class is high risk.
+         */
+        public void calculateEffectiveRates(byte[] riskClass, double[] rates) {
+            checkBook(riskClass.length, rates);
+            priceRange(riskClass, rates, 0, riskClass.length, baseInterestRate, highRiskRate());
+        }
+
+        /**
+         * Price a book, splitting it across the common fork/join pool once it reaches
+         * {@link #PARALLEL_PRICING_THRESHOLD} loans. Smaller books are priced on the caller.
+         */
+        public void calculateEffectiveRatesParallel(boolean[] highRisk, double[] rates) {
+            checkBook(highRisk.length, rates);
+            if (highRisk.length < PARALLEL_PRICING_THRESHOLD) {
+                priceRange(highRisk, rates, 0, highRisk.length, baseInterestRate, highRiskRate());
+                return;
+            }
+            ForkJoinPool.commonPool().invoke(
+                new FlagPricingTask(highRisk, rates, 0, highRisk.length, baseInterestRate, highRiskRate()));
+        }
+        
+        /**
+         * Same as {@link #calculateEffectiveRatesParallel(boolean[], double[])} for books stored
+         * as one risk-class byte per loan, where any non-zero class is high risk.
+         */
+        public void calculateEffectiveRatesParallel(byte[] riskClass, double[] rates) {
+            checkBook(riskClass.length, rates);
+            if (riskClass.length < PARALLEL_PRICING_THRESHOLD) {
+                priceRange(riskClass, rates, 0, riskClass.length, baseInterestRate, highRiskRate());
+                return;
+            }
+            ForkJoinPool.commonPool().invoke(
+                new RiskClassPricingTask(riskClass, rates, 0, riskClass.length, baseInterestRate, highRiskRate()));
+        }
+
+        private double highRiskRate() {
+            return baseInterestRate * creditRiskMultiplier;
+        }
+
+        private static void checkBook(int loans, double[] rates) {
+            if (rates.length < loans) {
+                throw new IllegalArgumentException(
+                    "Rate buffer holds " + rates.length + " entries but the book has " + loans + " loans");
+            }
+        }
+
+        /**
+         * Price a single loan, stamped with the version of this snapshot.
+         */
+        public PricedRate price(boolean isHighRisk) {
+            return new PricedRate(calculateEffectiveRate(isHighRisk), isHighRisk, version);
+        }
+
+        RateSnapshot withBaseInterestRate(double rate) {
+            return new RateSnapshot(version + 1, rate, creditRiskMultiplier, rateLocked);
+        }
+
+        RateSnapshot withRateLocked(boolean locked) {
+            return new RateSnapshot(version + 1, baseInterestRate, creditRiskMultiplier, locked);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Base: %.4f%%, Risk Multiplier: %.2fx, Locked: %s, Version: %d",
+                baseInterestRate * 100, creditRiskMultiplier, rateLocked, version);
+        }
+    }
+    
+    private static void priceRange(boolean[] highRisk, double[] rates, int from, int to,
+                                   double base, double high) {
+        for (int i = from; i < to; i++) {
+            rates[i] = highRisk[i] ? high : base;
+        }
+    }
+    
+    private static void priceRange(byte[] riskClass, double[] rates, int from, int to,
+                                   double base, double high) {
+        for (int i = from; i < to; i++) {
+            rates[i] = riskClass[i] != 0 ? high : base;
+        }
+    }
+    
+    /**
+     * Fork/join task pricing one slice of a loan book; it halves the slice until it is
+     * small enough to price in a single loop. Subclasses supply the book layout.
+     */
+    private abstract static class PricingTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final double[] rates;
+        final int from;
+        final int to;
+        final double base;
+        final double high;
+
+        PricingTask(double[] rates, int from, int to, double base, double high) {
+            this.rates = rates;
+            this.from = from;
+            this.to = to;
+            this.base = base;
+            this.high = high;
+        }
+
+        abstract void priceLeaf();
+
+        abstract PricingTask slice(int sliceFrom, int sliceTo);
+
+        @Override
+        protected void compute() {
+            if (to - from <= PRICING_LEAF_SIZE) {
+                priceLeaf();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(slice(from, mid), slice(mid, to));
+        }
+    }
+    
+    private static final class FlagPricingTask extends PricingTask {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean[] highRisk;
+
+        FlagPricingTask(boolean[] highRisk, double[] rates, int from, int to, double base, double high) {
+            super(rates, from, to, base, high);
+            this.highRisk = highRisk;
+        }
+
+        @Override
+        void priceLeaf() {
+            priceRange(highRisk, rates, from, to, base, high);
+        }
+
+        @Override
+        PricingTask slice(int sliceFrom, int sliceTo) {
+            return new FlagPricingTask(highRisk, rates, sliceFrom, sliceTo, base, high);
+        }
+    }
+    
+    private static final class RiskClassPricingTask extends PricingTask {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] riskClass;
+
+        RiskClassPricingTask(byte[] riskClass, double[] rates, int from, int to, double base, double high) {
+            super(rates, from, to, base, high);
+            this.riskClass = riskClass;
+        }
+
+        @Override
+        void priceLeaf() {
+            priceRange(riskClass, rates, from, to, base, high);
+        }
+
+        @Override
+        PricingTask slice(int sliceFrom, int sliceTo) {
+            return new RiskClassPricingTask(riskClass, rates, sliceFrom, sliceTo, base, high);
+        }
+    }
+    
+    /**
+     * An effective rate together with the configuration version it was calculated from.
+     */
+    public static final class PricedRate {
+        private final double effectiveRate;
+        private final boolean highRisk;
+        private final long version;
+
+        PricedRate(double effectiveRate, boolean highRisk, long version) {
+            this.effectiveRate = effectiveRate;
+            this.highRisk = highRisk;
+            this.version = version;
+        }
+
+        public double getEffectiveRate() { return effectiveRate; }
+        public boolean isHighRisk() { return highRisk; }
+        public long getVersion() { return version; }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f%% (High Risk: %s, v%d)", effectiveRate * 100, highRisk, version);
+        }
+    }
+    
+    /**
+     * Precomputed rates for every risk tier, product and term. The effective rate of a cell is
+     * {@code base * tierMultiplier + productSpread + termPremium}, laid out in one flat array
+     * so a lookup is an index computation. Tables are immutable; every configuration change
+     * builds a new one in the background and swaps it in, so its version catches up with the
+     * snapshot's.
+     */
+    public static final class RateTable {
+        private final long version;
+        private final double baseInterestRate;
+        private final double[] tierMultipliers;
+        private final double[] productSpreads;
+        private final double[] termPremiums;
+        private final double[] rates;
+
+        RateTable(RateSnapshot snapshot, double[] tierMultipliers, double[] productSpreads, double[] termPremiums) {
+            this.version = snapshot.version;
+            this.baseInterestRate = snapshot.baseInterestRate;
+            this.tierMultipliers = tierMultipliers;
+            this.productSpreads = productSpreads;
+            this.termPremiums = termPremiums;
+
+            int products = productSpreads.length;
+            int terms = termPremiums.length;
+            this.rates = new double[tierMultipliers.length * products * terms];
+            for (int tier = 0; tier < tierMultipliers.length; tier++) {
+                double tierRate = baseInterestRate * tierMultipliers[tier];
+                for (int product = 0; product < products; product++) {
+                    int row = (tier * products + product) * terms;
+                    for (int term = 0; term < terms; term++) {
+                        rates[row + term] = tierRate + productSpreads[product] + termPremiums[term];
+                    }
+                }
+            }
+        }
+
+        /** Version of the rate snapshot this table was built from. */
+        public long getVersion() { return version; }
+        public double getBaseInterestRate() { return baseInterestRate; }
+        public int getTierCount() { return tierMultipliers.length; }
+        public int getProductCount() { return productSpreads.length; }
+        public int getTermCount() { return termPremiums.length; }
+
+        /**
+         * Effective rate for one loan.
+         *
+         * @throws IndexOutOfBoundsException if a coordinate is outside the table
+         */
+        public double rate(int tier, int product, int term) {
+            Objects.checkIndex(tier, tierMultipliers.length);
+            Objects.checkIndex(product, productSpreads.length);
+            Objects.checkIndex(term, termPremiums.length);
+            return rates[(tier * productSpreads.length + product) * termPremiums.length + term];
+        }
+
+        /**
+         * Price a book of one product and term, with a risk tier per loan.
+         *
+         * @throws IllegalArgumentException if {@code out} is shorter than {@code tiers}
+         */
+        public void rates(int[] tiers, int product, int term, double[] out) {
+            RateSnapshot.checkBook(tiers.length, out);
+            Objects.checkIndex(product, productSpreads.length);
+            Objects.checkIndex(term, termPremiums.length);
+            int stride = productSpreads.length * termPremiums.length;
+            int offset = product * termPremiums.length + term;
+            for (int i = 0; i < tiers.length; i++) {
+                out[i] = rates[Objects.checkIndex(tiers[i], tierMultipliers.length) * stride + offset];
+            }
+        }
+
+        /**
+         * Price a mixed book, one tier, product and term per loan.
+         *
+         * @throws IllegalArgumentException if the input arrays differ in length or
+         *         {@code out} is too short
+         */
+        public void rates(int[] tiers, int[] products, int[] terms, double[] out) {
+            if (products.length != tiers.length || terms.length != tiers.length) {
+                throw new IllegalArgumentException("Tier, product and term arrays must have the same length");
+            }
+            RateSnapshot.checkBook(tiers.length, out);
+            for (int i = 0; i < tiers.length; i++) {
+                out[i] = rate(tiers[i], products[i], terms[i]);
+            }
+        }
+
+        // Same rates under a newer version, for changes that leave the base rate alone
+        private RateTable(RateTable source, long version) {
+            this.version = version;
+            this.baseInterestRate = source.baseInterestRate;
+            this.tierMultipliers = source.tierMultipliers;
+            this.productSpreads = source.productSpreads;
+            this.termPremiums = source.termPremiums;
+            this.rates = source.rates;
+        }
+
+        RateTable rebuild(RateSnapshot snapshot) {
+            if (Double.compare(snapshot.baseInterestRate, baseInterestRate) == 0) {
+                return new RateTable(this, snapshot.version);
+            }
+            return new RateTable(snapshot, tierMultipliers, productSpreads, termPremiums);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RateTable[%d tiers x %d products x %d terms, Base: %.4f%%, Version: %d]",
+                tierMultipliers.length, productSpreads.length, termPremiums.length,
+                baseInterestRate * 100, version);
+        }
+    }
+    
+    /**
+     * Base rate change pushed to subscribers. Updates that land before the dispatcher gets to
+     * a subscriber are coalesced: the event carries the rate that subscriber last saw and
+     * the latest one.
+     */
+    public static final class RateChangeEvent {
+        private final double oldRate;
+        private final double newRate;
+        private final long version;
+
+        RateChangeEvent(double oldRate, double newRate, long version) {
+            this.oldRate = oldRate;
+            this.newRate = newRate;
+            this.version = version;
+        }
+
+        public double getOldRate() { return oldRate; }
+        public double getNewRate() { return newRate; }
+        /** Version of the snapshot holding {@link #getNewRate()}. */
+        public long getVersion() { return version; }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f%% -> %.4f%% (v%d)", oldRate * 100, newRate * 100, version);
+        }
+    }
+    
+    /**
+     * Receives base rate changes on the rate change dispatcher thread.
+     */
+    @FunctionalInterface
+    public interface RateChangeListener {
+        void onRateChange(RateChangeEvent event);
+    }
+    
+    /**
+     * Handle returned by {@link #subscribe(RateChangeListener)}; closing it stops delivery.
+     */
+    public final class RateSubscription implements AutoCloseable {
+        private final RateChangeListener listener;
+        // Only touched on the dispatcher thread after construction
+        private double lastRate;
+        private long lastVersion;
+        private volatile boolean active = true;
+
+        RateSubscription(RateChangeListener listener, RateSnapshot baseline) {
+            this.listener = listener;
+            this.lastRate = baseline.baseInterestRate;
+            this.lastVersion = baseline.version;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public void close() {
+            active = false;
+            subscriptions.remove(this);
+        }
+
+        void deliver(RateSnapshot snapshot) {
+            if (!active || snapshot.version <= lastVersion) {
+                return;
+            }
+            double oldRate = lastRate;
+            lastRate = snapshot.baseInterestRate;
+            lastVersion = snapshot.version;
+            // Lock changes bump the version too, but only a different rate is worth an event
+            if (Double.compare(oldRate, snapshot.baseInterestRate) == 0) {
+                return;
+            }
+            try {
+                listener.onRateChange(new RateChangeEvent(oldRate, snapshot.baseInterestRate, snapshot.version));
+            } catch (RuntimeException e) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "Rate change listener failed", e);
+                }
+            }
+        }
+    }
+    
+    // Configuration data, replaced as a whole on every change (copy-on-write)
+    private final AtomicReference<RateSnapshot> config;
+    
+    // Precomputed tier x product x term rates, null until configured
+    private final AtomicReference<RateTable> rateTable = new AtomicReference<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService tableBuilder =
+        Executors.newSingleThreadExecutor(ObjectPoolPattern.daemonThreads("rate-table-builder"));
+    
+    // Rate change subscribers, notified from their own thread so setters never run listener code
+    private final CopyOnWriteArrayList<RateSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+    private final ExecutorService dispatcher =
+        Executors.newSingleThreadExecutor(ObjectPoolPattern.daemonThreads("rate-change-dispatcher"));
     
     /**
      * Private constructor prevents external instantiation.
      * Initialize with default financial configuration.
      */
     private SingletonPattern() {
-        this.baseInterestRate = 0.05; // 5% base rate
-        this.creditRiskMultiplier = 1.2; // 20% multiplier for high-risk accounts
-        this.isRateLocked = false;
+        // 5% base rate, 20% multiplier for high-risk accounts
+        this.config = new AtomicReference<>(new RateSnapshot(1, 0.05, 1.2, false));
         
         if (logger.isLoggable(Level.INFO)) {
             logger.info("Interest rate configuration initialized with default values");
@@ -46,31 +492,47 @@ public class SingletonPattern {
         return SingletonHolder.INSTANCE;
     }
     
+    /**
+     * Get the current configuration snapshot. Callers needing several values, or pricing a
+     * batch of loans, should pin one snapshot rather than go through the individual getters.
+     * 
+     * @return the current immutable rate snapshot
+     */
+    public RateSnapshot getSnapshot() {
+        return config.get();
+    }
+
     /**
      * Get the current base interest rate.
      * 
      * @return current base interest rate as decimal (e.g., 0.05 for 5%)
      */
-    public synchronized double getBaseInterestRate() {
-        return baseInterestRate;
+    public double getBaseInterestRate() {
+        return config.get().baseInterestRate;
     }
     
     /**
-     * Set the base interest rate if not locked.
+     * Set the base interest rate if not locked. The lock flag is checked against the same
+     * snapshot that gets replaced, so a concurrent {@link #lockRates()} can't be overtaken.
      * 
      * @param rate new base interest rate as decimal
      * @throws IllegalStateException if rates are locked
      * @throws IllegalArgumentException if rate is negative
      */
-    public synchronized void setBaseInterestRate(double rate) {
-        if (isRateLocked) {
-            throw new IllegalStateException("Interest rates are currently locked");
-        }
+    public void setBaseInterestRate(double rate) {
         if (rate < 0) {
             throw new IllegalArgumentException("Interest rate cannot be negative");
         }
         
-        this.baseInterestRate = rate;
+        RateSnapshot current;
+        do {
+            current = config.get();
+            if (current.rateLocked) {
+                throw new IllegalStateException("Interest rates are currently locked");
+            }
+        } while (!config.compareAndSet(current, current.withBaseInterestRate(rate)));
+        scheduleRateTableRebuild();
+        scheduleDispatch();
         if (logger.isLoggable(Level.INFO)) {
             logger.info(String.format("Base interest rate updated to: %.4f%%", rate * 100));
         }
@@ -83,9 +545,7 @@ public class SingletonPattern {
      * @return effective interest rate
      */
     public double calculateEffectiveRate(boolean isHighRisk) {
-        double effectiveRate = isHighRisk ? 
-            baseInterestRate * creditRiskMultiplier : 
-            baseInterestRate;
+        double effectiveRate = config.get().calculateEffectiveRate(isHighRisk);
             
         if (logger.isLoggable(Level.INFO)) {
             logger.info(String.format("Calculated effective rate: %.4f%% (High Risk: %s)", 
@@ -95,11 +555,147 @@ public class SingletonPattern {
         return effectiveRate;
     }
     
+    /**
+     * Configure the tier x product x term rate table. The first table is built on the
+     * calling thread; later base rate changes rebuild it on a background thread.
+     * 
+     * @param tierMultipliers multiplier on the base rate per risk tier
+     * @param productSpreads spread added per product, may be negative for discounted products
+     * @param termPremiums premium added per loan term
+     * @throws IllegalArgumentException if any dimension is empty or a multiplier is negative
+     */
+    public void configureRateTable(double[] tierMultipliers, double[] productSpreads, double[] termPremiums) {
+        if (tierMultipliers.length == 0 || productSpreads.length == 0 || termPremiums.length == 0) {
+            throw new IllegalArgumentException("Rate table needs at least one tier, product and term");
+        }
+        for (double multiplier : tierMultipliers) {
+            if (multiplier < 0) {
+                throw new IllegalArgumentException("Risk tier multiplier cannot be negative");
+            }
+        }
+        
+        RateTable table = new RateTable(config.get(), tierMultipliers.clone(),
+            productSpreads.clone(), termPremiums.clone());
+        rateTable.set(table);
+        // A base rate change may have slipped in while the table was being built
+        scheduleRateTableRebuild();
+        
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info("Configured " + table);
+        }
+    }
+    
+    /**
+     * Get the current rate table. After a configuration change it briefly lags behind
+     * {@link #getSnapshot()}; compare versions when that matters.
+     * 
+     * @return the current precomputed rate table
+     * @throws IllegalStateException if no rate table has been configured
+     */
+    public RateTable getRateTable() {
+        RateTable table = rateTable.get();
+        if (table == null) {
+            throw new IllegalStateException("Rate table has not been configured");
+        }
+        return table;
+    }
+    
+    private void scheduleRateTableRebuild() {
+        // Rapid rate changes coalesce into one rebuild from the latest snapshot
+        if (rateTable.get() != null && rebuildPending.compareAndSet(false, true)) {
+            tableBuilder.execute(this::rebuildRateTable);
+        }
+    }
+    
+    private void rebuildRateTable() {
+        rebuildPending.set(false);
+        RateTable current;
+        RateTable rebuilt;
+        do {
+            current = rateTable.get();
+            RateSnapshot snapshot = config.get();
+            if (current.version >= snapshot.version) {
+                return;
+            }
+            rebuilt = current.rebuild(snapshot);
+        } while (!rateTable.compareAndSet(current, rebuilt));
+        
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Rebuilt " + rebuilt);
+        }
+    }
+    
+    /**
+     * Subscribe to base rate changes. Events are delivered in order on a dedicated
+     * dispatcher thread, starting from the rate current at the time of subscribing.
+     * 
+     * @param listener callback for rate changes
+     * @return subscription to close when the listener is no longer interested
+     */
+    public RateSubscription subscribe(RateChangeListener listener) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        RateSubscription subscription = new RateSubscription(listener, config.get());
+        subscriptions.add(subscription);
+        // Catch a change that landed between taking the baseline and registering
+        scheduleDispatch();
+        return subscription;
+    }
+    
+    private void scheduleDispatch() {
+        // Rapid rate changes coalesce into one pass over the subscribers with the latest snapshot
+        if (!subscriptions.isEmpty() && dispatchPending.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatchRateChange);
+        }
+    }
+    
+    private void dispatchRateChange() {
+        dispatchPending.set(false);
+        RateSnapshot snapshot = config.get();
+        for (RateSubscription subscription : subscriptions) {
+            subscription.deliver(snapshot);
+        }
+    }
+    
+    /**
+     * Price an entire loan book against one snapshot, in parallel for large books. Logs once
+     * per book rather than once per loan.
+     * 
+     * @param highRisk risk flag per loan
+     * @param rates output buffer, at least as long as {@code highRisk}
+     * @return version of the snapshot every rate was priced at
+     */
+    public long priceBook(boolean[] highRisk, double[] rates) {
+        RateSnapshot snapshot = config.get();
+        snapshot.calculateEffectiveRatesParallel(highRisk, rates);
+        logPricedBook(highRisk.length, snapshot);
+        return snapshot.version;
+    }
+    
+    /**
+     * Same as {@link #priceBook(boolean[], double[])} for books stored as one risk-class byte
+     * per loan, where any non-zero class is high risk.
+     * 
+     * @return version of the snapshot every rate was priced at
+     */
+    public long priceBook(byte[] riskClass, double[] rates) {
+        RateSnapshot snapshot = config.get();
+        snapshot.calculateEffectiveRatesParallel(riskClass, rates);
+        logPricedBook(riskClass.length, snapshot);
+        return snapshot.version;
+    }
+    
+    private static void logPricedBook(int loans, RateSnapshot snapshot) {
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info(String.format("Priced %d loans at configuration version %d",
+                loans, snapshot.version));
+        }
+    }
+    
     /**
      * Lock interest rates to prevent modifications.
      */
-    public synchronized void lockRates() {
-        this.isRateLocked = true;
+    public void lockRates() {
+        setRateLocked(true);
         if (logger.isLoggable(Level.INFO)) {
             logger.info("Interest rates have been locked");
         }
@@ -108,8 +704,8 @@ public class SingletonPattern {
     /**
      * Unlock interest rates to allow modifications.
      */
-    public synchronized void unlockRates() {
-        this.isRateLocked = false;
+    public void unlockRates() {
+        setRateLocked(false);
         if (logger.isLoggable(Level.INFO)) {
             logger.info("Interest rates have been unlocked");
         }
@@ -120,8 +716,20 @@ public class SingletonPattern {
      * 
      * @return true if rates are locked
      */
-    public synchronized boolean isRateLocked() {
-        return isRateLocked;
+    public boolean isRateLocked() {
+        return config.get().rateLocked;
+    }
+    
+    private void setRateLocked(boolean locked) {
+        RateSnapshot current;
+        do {
+            current = config.get();
+            if (current.rateLocked == locked) {
+                return;
+            }
+        } while (!config.compareAndSet(current, current.withRateLocked(locked)));
+        // Rates are unchanged, but the table is re-stamped so its version keeps up
+        scheduleRateTableRebuild();
     }
     
     /**
@@ -129,10 +737,7 @@ public class SingletonPattern {
      */
     public void displayConfiguration() {
         if (logger.isLoggable(Level.INFO)) {
-            logger.info(String.format(
-                "Interest Rate Configuration - Base: %.4f%%, Risk Multiplier: %.2fx, Locked: %s",
-                baseInterestRate * 100, creditRiskMultiplier, isRateLocked
-            ));
+            logger.info("Interest Rate Configuration - " + config.get());
         }
     }
     
@@ -157,6 +762,13 @@ public class SingletonPattern {
         loanModule.calculateEffectiveRate(false); // Low risk
         loanModule.calculateEffectiveRate(true);  // High risk
         
+        // The savings module keeps a rate cache and is told when it goes stale
+        RateSubscription savingsCache = savingsModule.subscribe(event -> {
+            if (logger.isLoggable(Level.INFO)) {
+                logger.info(() -> "Savings rate cache invalidated: " + event);
+            }
+        });
+        
         // Update configuration from one module (affects all)
         try {
             savingsModule.setBaseInterestRate(0.045); // 4.5%
@@ -170,7 +782,28 @@ public class SingletonPattern {
             }
         }
         
+        // Price a batch against one pinned snapshot; every result carries the same version
+        RateSnapshot pinned = creditModule.getSnapshot();
+        boolean[] loanBook = {false, true, true, false};
+        for (boolean highRisk : loanBook) {
+            PricedRate priced = pinned.price(highRisk);
+            if (logger.isLoggable(Level.INFO)) {
+                logger.info(() -> "Priced loan at " + priced);
+            }
+        }
+        
+        // Tiered pricing: 4 risk tiers x 2 products (mortgage, auto) x 3 terms (5, 15, 30 years)
+        creditModule.configureRateTable(
+            new double[] {0.9, 1.0, 1.2, 1.5},
+            new double[] {0.0, 0.015},
+            new double[] {0.0, 0.0025, 0.005});
+        RateTable table = creditModule.getRateTable();
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info(String.format("Tier 3 auto loan over 30 years: %.4f%%", table.rate(3, 1, 2) * 100));
+        }
+        
         // Final configuration
         loanModule.displayConfiguration();
+        savingsCache.close();
     }
 }
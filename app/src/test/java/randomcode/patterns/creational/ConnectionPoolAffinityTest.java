@@ -0,0 +1,96 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.HandoutPolicy;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.PoolMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolAffinityTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void releasingThreadGetsItsOwnObjectBackAndOthersCanSteal() throws Exception {
+        pool = TestResource.poolBuilder(2).setMode(PoolMode.AFFINITY).build();
+        assertEquals(PoolMode.AFFINITY, pool.getMode());
+        
+        TestResource mine = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(mine);
+        assertSame(mine, pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(mine);
+        
+        // Another thread finds it through stealing rather than creating a second object
+        TestResource stolen = CompletableFuture.supplyAsync(() -> {
+            try {
+                TestResource object = pool.acquire(1, TimeUnit.SECONDS);
+                pool.release(object);
+                return object;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertSame(mine, stolen);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+    
+    @Test void concurrentBorrowersNeverShareAnObject() throws Exception {
+        pool = TestResource.poolBuilder(4).setMode(PoolMode.AFFINITY).build();
+        Set<TestResource> inUse = ConcurrentHashMap.newKeySet();
+        AtomicInteger shared = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> borrowers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                borrowers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        try {
+                            TestResource object = pool.acquire(5, TimeUnit.SECONDS);
+                            if (!inUse.add(object)) {
+                                shared.incrementAndGet();
+                            }
+                            inUse.remove(object);
+                            pool.release(object);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }, threads));
+            }
+            CompletableFuture.allOf(borrowers.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdownNow();
+        }
+        
+        assertEquals(0, shared.get(), "an object was handed to two borrowers at once");
+        assertTrue(pool.getCreatedCount() <= 4);
+        assertEquals(pool.getCreatedCount(), pool.getIdleCount());
+        assertEquals(16_000, pool.getStats().getTotalReleases());
+    }
+    
+    @Test void affinityModeOnlySupportsFifoHandout() {
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(2)
+            .setMode(PoolMode.AFFINITY)
+            .setHandoutPolicy(HandoutPolicy.LIFO)
+            .build());
+    }
+}
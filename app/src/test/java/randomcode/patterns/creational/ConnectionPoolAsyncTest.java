@@ -0,0 +1,90 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolAsyncTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void idleObjectIsHandedOverImmediately() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource warm = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(warm);
+        
+        CompletableFuture<TestResource> future = pool.acquireAsync();
+        assertTrue(future.isDone());
+        assertSame(warm, future.get());
+        pool.release(warm);
+    }
+    
+    @Test void queuedBorrowersAreServedByReleasesInArrivalOrder() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        
+        CompletableFuture<TestResource> first = pool.acquireAsync(5, TimeUnit.SECONDS);
+        CompletableFuture<TestResource> second = pool.acquireAsync(5, TimeUnit.SECONDS);
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        
+        pool.release(only);
+        assertSame(only, first.get(1, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        
+        pool.release(only);
+        assertSame(only, second.get(1, TimeUnit.SECONDS));
+        pool.release(only);
+        assertEquals(1, pool.getCreatedCount());
+    }
+    
+    @Test void unservedBorrowerTimesOut() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        
+        CompletableFuture<TestResource> future = pool.acquireAsync(50, TimeUnit.MILLISECONDS);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof TimeoutException);
+        
+        // The timed-out waiter is gone, so the release goes back to the idle store
+        pool.release(only);
+        assertEquals(1, pool.getIdleCount());
+    }
+    
+    @Test void cancelledBorrowerDoesNotSwallowTheNextRelease() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        
+        CompletableFuture<TestResource> cancelled = pool.acquireAsync(5, TimeUnit.SECONDS);
+        CompletableFuture<TestResource> next = pool.acquireAsync(5, TimeUnit.SECONDS);
+        assertTrue(cancelled.cancel(false));
+        
+        pool.release(only);
+        assertSame(only, next.get(1, TimeUnit.SECONDS));
+    }
+    
+    @Test void borrowersFailOnceThePoolIsShutDown() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture<TestResource> waiting = pool.acquireAsync(5, TimeUnit.SECONDS);
+        
+        pool.shutdown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        assertTrue(pool.acquireAsync().isCompletedExceptionally());
+        pool.release(only);
+    }
+}
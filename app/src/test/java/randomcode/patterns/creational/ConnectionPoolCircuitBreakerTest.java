@@ -0,0 +1,182 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.CircuitState;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolCircuitBreakerTest {
+    /** What the factory does next: null creates normally, otherwise the throwable is thrown. */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean createBroken;
+    private ConnectionPool<TestResource> pool;
+    
+    private TestResource create() {
+        Throwable next = failure.get();
+        if (next instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (next instanceof Error error) {
+            throw error;
+        }
+        TestResource created = new TestResource();
+        created.valid = !createBroken;
+        return created;
+    }
+    
+    private ConnectionPool<TestResource> breakerPool() {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.OFF);
+        return new ConnectionPool.Builder<TestResource>(2, this::create)
+            .setMinIdle(0)
+            .setCircuitBreaker(2, 50, TimeUnit.MILLISECONDS)
+            .build();
+    }
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    /** Keep acquiring until an object comes back or the deadline passes; fast fails are retried. */
+    private TestResource acquireWithin(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                TestResource object = pool.acquire(20, TimeUnit.MILLISECONDS);
+                if (object != null) {
+                    return object;
+                }
+            } catch (RejectedExecutionException e) {
+                Thread.sleep(10);
+            }
+        }
+        return null;
+    }
+    
+    @Test void tripsFailsFastAndClosesAfterSuccessfulTrial() throws Exception {
+        failure.set(new IllegalStateException("endpoint down"));
+        pool = breakerPool();
+        
+        assertNull(acquireWithin(200));
+        assertEquals(CircuitState.OPEN, pool.getCircuitState());
+        assertTrue(pool.getCircuitTripCount() >= 1);
+        assertThrows(RejectedExecutionException.class, () -> pool.acquire(1, TimeUnit.SECONDS));
+        assertTrue(TestResource.eventually(() -> pool.getCreatedCount() == 0, 1000));
+        
+        failure.set(null);
+        TestResource object = acquireWithin(1000);
+        assertNotNull(object, "the half-open trial should succeed and close the breaker");
+        assertEquals(CircuitState.CLOSED, pool.getCircuitState());
+        pool.release(object);
+    }
+    
+    @Test void errorFromFactoryDoesNotWedgeTheBreaker() throws Exception {
+        failure.set(new LinkageError("factory blew up"));
+        pool = breakerPool();
+        
+        assertNull(acquireWithin(200));
+        assertEquals(CircuitState.OPEN, pool.getCircuitState());
+        
+        // Let a half-open trial fail with an Error as well: it must reopen, not stay half-open
+        Thread.sleep(60);
+        assertNull(acquireWithin(100));
+        assertTrue(TestResource.eventually(() -> pool.getCircuitState() == CircuitState.OPEN, 1000));
+        assertTrue(TestResource.eventually(() -> pool.getCreatedCount() == 0, 1000),
+            "failed creations must give their slot back");
+        
+        failure.set(null);
+        TestResource first = acquireWithin(1000);
+        TestResource second = acquireWithin(1000);
+        assertNotNull(first);
+        assertNotNull(second, "both slots should still be available");
+        assertEquals(CircuitState.CLOSED, pool.getCircuitState());
+        pool.release(first);
+        pool.release(second);
+    }
+    
+    @Test void brokenNewObjectsCountAsFailures() throws Exception {
+        createBroken = true;
+        pool = breakerPool();
+        
+        assertNull(acquireWithin(200));
+        assertEquals(CircuitState.OPEN, pool.getCircuitState());
+        CompletionException fastFail = assertThrows(CompletionException.class,
+            () -> pool.acquireAsync(1, TimeUnit.SECONDS).join());
+        assertTrue(fastFail.getCause() instanceof RejectedExecutionException);
+        assertTrue(TestResource.eventually(() -> pool.getCreatedCount() == 0, 1000));
+        
+        createBroken = false;
+        TestResource object = acquireWithin(1000);
+        assertNotNull(object);
+        assertTrue(object.isValid());
+        pool.release(object);
+    }
+    
+    /** Four idle objects in FIFO order, with a long open period so an open breaker stays open. */
+    private TestResource[] idleObjects() throws InterruptedException {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.OFF);
+        pool = new ConnectionPool.Builder<TestResource>(4, this::create)
+            .setMinIdle(0)
+            .setCircuitBreaker(2, 10, TimeUnit.SECONDS)
+            .build();
+        TestResource[] objects = new TestResource[4];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = pool.acquire(1, TimeUnit.SECONDS);
+        }
+        for (TestResource object : objects) {
+            pool.release(object);
+        }
+        return objects;
+    }
+    
+    @Test void isolatedFailuresBetweenHealthyBorrowsDoNotTrip() throws Exception {
+        TestResource[] objects = idleObjects();
+        
+        objects[0].valid = false;
+        TestResource healthy = pool.acquire(1, TimeUnit.SECONDS);
+        assertSame(objects[1], healthy);
+        pool.release(healthy);
+        
+        // No creation in between: only the healthy borrow ended the first run of failures
+        objects[2].valid = false;
+        TestResource next = pool.acquire(1, TimeUnit.SECONDS);
+        assertSame(objects[3], next);
+        pool.release(next);
+        
+        assertEquals(CircuitState.CLOSED, pool.getCircuitState());
+        assertEquals(0, pool.getCircuitTripCount());
+        assertEquals(2, pool.getCreatedCount());
+    }
+    
+    @Test void consecutiveFailuresTripEvenIfAHealthyObjectFollows() throws Exception {
+        TestResource[] objects = idleObjects();
+        
+        objects[0].valid = false;
+        objects[1].valid = false;
+        TestResource healthy = pool.acquire(1, TimeUnit.SECONDS);
+        assertSame(objects[2], healthy);
+        
+        // A borrow ends the run of failures, but only a trial creation closes the breaker
+        assertEquals(CircuitState.OPEN, pool.getCircuitState());
+        assertEquals(1, pool.getCircuitTripCount());
+        pool.release(healthy);
+    }
+    
+    @Test void breakerSettingsAreValidated() {
+        assertThrows(IllegalArgumentException.class,
+            () -> TestResource.poolBuilder(2).setCircuitBreaker(0, 50, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class,
+            () -> TestResource.poolBuilder(2).setCircuitBreaker(2, 0, TimeUnit.MILLISECONDS));
+    }
+}
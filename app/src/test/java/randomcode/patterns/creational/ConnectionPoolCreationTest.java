@@ -0,0 +1,91 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolCreationTest {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final Set<String> creatorThreads = ConcurrentHashMap.newKeySet();
+    private ConnectionPool<TestResource> pool;
+    
+    @BeforeEach void quietLogging() {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.SEVERE);
+    }
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    // Each creation takes a while, so a burst of borrowers piles up creations
+    private ConnectionPool.Builder<TestResource> slowPool(int maxSize) {
+        return new ConnectionPool.Builder<TestResource>(maxSize, () -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            creatorThreads.add(Thread.currentThread().getName());
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new TestResource();
+        }).setMinIdle(0);
+    }
+    
+    @Test void burstOfBorrowersNeverExceedsThePendingCreationCap() throws Exception {
+        pool = slowPool(12).setCreationThreads(4).setMaxPendingCreations(2).build();
+        
+        List<CompletableFuture<TestResource>> borrowers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            borrowers.add(pool.acquireAsync(10, TimeUnit.SECONDS));
+        }
+        CompletableFuture.allOf(borrowers.toArray(new CompletableFuture<?>[0])).get(15, TimeUnit.SECONDS);
+        
+        assertEquals(12, pool.getCreatedCount());
+        assertTrue(peakInFlight.get() <= 2, "peak creations in flight: " + peakInFlight.get());
+        for (CompletableFuture<TestResource> borrower : borrowers) {
+            pool.release(borrower.get());
+        }
+    }
+    
+    @Test void objectsAreCreatedOnTheCreatorThreads() throws Exception {
+        pool = slowPool(4).setMinIdle(2).build();
+        TestResource object = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(object);
+        
+        assertFalse(creatorThreads.isEmpty());
+        for (String thread : creatorThreads) {
+            assertTrue(thread.startsWith("pool-creator"), "created on " + thread);
+        }
+    }
+    
+    @Test void warmUpCreatesInParallel() {
+        pool = slowPool(8).setCreationThreads(4).setMinIdle(4).build();
+        
+        assertEquals(4, pool.getIdleCount());
+        assertTrue(peakInFlight.get() > 1, "warm-up ran one creation at a time");
+    }
+    
+    @Test void creationLimitsAreValidated() {
+        assertThrows(IllegalArgumentException.class, () -> slowPool(4).setCreationThreads(0));
+        assertThrows(IllegalArgumentException.class, () -> slowPool(4).setMaxPendingCreations(0));
+    }
+}
@@ -0,0 +1,90 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.HandoutPolicy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolEvictionTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void evictorClosesStaleIdleObjectsWithoutABorrow() throws Exception {
+        pool = TestResource.poolBuilder(4).setEvictionInterval(20, TimeUnit.MILLISECONDS).build();
+        TestResource stale = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource healthy = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(stale);
+        pool.release(healthy);
+        
+        stale.valid = false;
+        assertTrue(TestResource.eventually(stale::isClosed, 2000), "stale object was never evicted");
+        assertFalse(healthy.isClosed());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getStats().getEvictedObjects());
+    }
+    
+    @Test void evictionKeepsTheHandoutOrderOfValidObjects() throws Exception {
+        pool = TestResource.poolBuilder(4)
+            .setHandoutPolicy(HandoutPolicy.LIFO)
+            .setEvictionInterval(20, TimeUnit.MILLISECONDS)
+            .build();
+        TestResource oldest = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource stale = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource newest = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(oldest);
+        pool.release(stale);
+        pool.release(newest);
+        
+        stale.valid = false;
+        assertTrue(TestResource.eventually(stale::isClosed, 2000));
+        // Several sweeps over the valid objects must not reorder them
+        Thread.sleep(100);
+        assertSame(newest, pool.acquire(1, TimeUnit.SECONDS));
+        assertSame(oldest, pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(oldest);
+        pool.release(newest);
+    }
+    
+    @Test void evictorTopsUpToMinIdleAfterEvicting() throws Exception {
+        pool = TestResource.poolBuilder(4)
+            .setMinIdle(2)
+            .setEvictionInterval(20, TimeUnit.MILLISECONDS)
+            .build();
+        TestResource first = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource second = pool.acquire(1, TimeUnit.SECONDS);
+        assertTrue(TestResource.eventually(() -> pool.getIdleCount() == 2, 2000));
+        pool.release(first);
+        pool.release(second);
+        assertTrue(TestResource.eventually(() -> pool.getIdleCount() == 4, 2000));
+        
+        first.valid = false;
+        second.valid = false;
+        assertTrue(TestResource.eventually(() -> first.isClosed() && second.isClosed(), 2000));
+        assertTrue(TestResource.eventually(() -> pool.getIdleCount() >= 2, 2000));
+        assertEquals(2, pool.getStats().getEvictedObjects());
+    }
+    
+    @Test void withoutAnEvictorEveryBorrowValidates() throws Exception {
+        pool = TestResource.poolBuilder(2).setEvictionInterval(0, TimeUnit.MILLISECONDS).build();
+        TestResource stale = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(stale);
+        stale.valid = false;
+        
+        TestResource fresh = pool.acquire(1, TimeUnit.SECONDS);
+        assertNotSame(stale, fresh);
+        assertTrue(stale.isClosed());
+        assertEquals(1, pool.getStats().getDiscardedObjects());
+        assertEquals(0, pool.getStats().getEvictedObjects());
+        pool.release(fresh);
+    }
+}
@@ -0,0 +1,86 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.HandoutPolicy;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.PoolMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolHandoutPolicyTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    private TestResource[] borrowAndReturnInOrder(int count) throws InterruptedException {
+        TestResource[] objects = new TestResource[count];
+        for (int i = 0; i < count; i++) {
+            objects[i] = pool.acquire(1, TimeUnit.SECONDS);
+        }
+        for (TestResource object : objects) {
+            pool.release(object);
+        }
+        return objects;
+    }
+    
+    @Test void fifoHandsOutTheOldestIdleObject() throws Exception {
+        pool = TestResource.poolBuilder(3).setHandoutPolicy(HandoutPolicy.FIFO).build();
+        assertEquals(HandoutPolicy.FIFO, pool.getHandoutPolicy());
+        TestResource[] released = borrowAndReturnInOrder(3);
+        
+        assertSame(released[0], pool.acquire(1, TimeUnit.SECONDS));
+        assertSame(released[1], pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(released[0]);
+        pool.release(released[1]);
+    }
+    
+    @Test void lifoHandsOutTheHottestAndTrimsTheColdest() throws Exception {
+        pool = TestResource.poolBuilder(3).setHandoutPolicy(HandoutPolicy.LIFO).build();
+        TestResource[] released = borrowAndReturnInOrder(3);
+        
+        assertSame(released[2], pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(released[2]);
+        
+        assertEquals(1, pool.closeIdle(1));
+        assertTrue(released[0].isClosed());
+        assertFalse(released[1].isClosed() || released[2].isClosed());
+        assertEquals(2, pool.getIdleCount());
+    }
+    
+    @Test void leastUsedHandsOutTheLeastWornAndTrimsTheMostWorn() throws Exception {
+        pool = TestResource.poolBuilder(3).setHandoutPolicy(HandoutPolicy.LEAST_USED).build();
+        TestResource worn = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource fresh = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource middling = pool.acquire(1, TimeUnit.SECONDS);
+        worn.resets.addAndGet(50);
+        middling.resets.addAndGet(10);
+        pool.release(worn);
+        pool.release(fresh);
+        pool.release(middling);
+        
+        assertSame(fresh, pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(fresh);
+        
+        assertEquals(1, pool.closeIdle(1));
+        assertTrue(worn.isClosed());
+        assertSame(fresh, pool.acquire(1, TimeUnit.SECONDS));
+        assertSame(middling, pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(fresh);
+        pool.release(middling);
+    }
+    
+    @Test void orderedPoliciesRequireQueueMode() {
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(2)
+            .setMode(PoolMode.AFFINITY)
+            .setHandoutPolicy(HandoutPolicy.LIFO)
+            .build());
+    }
+}
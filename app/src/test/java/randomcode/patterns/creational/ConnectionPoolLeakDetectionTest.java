@@ -0,0 +1,98 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.LeakReport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolLeakDetectionTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void heldObjectIsReportedWithBorrowerThread() throws Exception {
+        pool = TestResource.poolBuilder(2).setLeakDetection(20, TimeUnit.MILLISECONDS, 1, false).build();
+        TestResource held = pool.acquire(1, TimeUnit.SECONDS);
+        Thread.sleep(50);
+        
+        List<LeakReport> leaks = pool.getSuspectedLeaks();
+        assertEquals(1, leaks.size());
+        assertSame(held, leaks.get(0).getObject());
+        assertEquals(Thread.currentThread().getName(), leaks.get(0).getBorrowerThread());
+        assertEquals("heldObjectIsReportedWithBorrowerThread", leaks.get(0).getBorrowSite()[0].getMethodName());
+        
+        pool.release(held);
+        assertTrue(pool.getSuspectedLeaks().isEmpty());
+    }
+    
+    @Test void asyncBorrowSiteIsTheCallerNotTheReleaser() throws Exception {
+        pool = TestResource.poolBuilder(1).setLeakDetection(20, TimeUnit.MILLISECONDS, 1, false).build();
+        TestResource first = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture<TestResource> queued = borrowAsync();
+        
+        // The release hands the object to the queued borrower on the releasing thread
+        Thread releaser = new Thread(() -> releaseFromAnotherThread(first), "releaser");
+        releaser.start();
+        releaser.join();
+        TestResource second = queued.get(1, TimeUnit.SECONDS);
+        Thread.sleep(50);
+        
+        List<LeakReport> leaks = pool.getSuspectedLeaks();
+        assertEquals(1, leaks.size());
+        assertSame(second, leaks.get(0).getObject());
+        assertEquals(Thread.currentThread().getName(), leaks.get(0).getBorrowerThread());
+        StackTraceElement[] site = leaks.get(0).getBorrowSite();
+        assertEquals("borrowAsync", site[0].getMethodName());
+        assertTrue(Arrays.stream(site).noneMatch(frame -> frame.getMethodName().equals("releaseFromAnotherThread")));
+    }
+    
+    private CompletableFuture<TestResource> borrowAsync() {
+        return pool.acquireAsync(1, TimeUnit.SECONDS);
+    }
+    
+    private void releaseFromAnotherThread(TestResource object) {
+        pool.release(object);
+    }
+    
+    @Test void releaseOfForeignObjectLeavesItOpen() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource foreign = new TestResource();
+        pool.release(foreign);
+        
+        assertFalse(foreign.isClosed());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getStats().getTotalReleases());
+    }
+    
+    @Test void reclaimedLeakIsClosedAndItsSlotReused() throws Exception {
+        pool = TestResource.poolBuilder(1).setLeakDetection(20, TimeUnit.MILLISECONDS, 1, true).build();
+        TestResource leaked = pool.acquire(1, TimeUnit.SECONDS);
+        
+        // The scan runs every 100 ms at most
+        TestResource replacement = pool.acquire(2, TimeUnit.SECONDS);
+        assertNotNull(replacement, "reclaiming should free the only slot");
+        assertNotSame(leaked, replacement);
+        assertTrue(leaked.isClosed());
+        assertEquals(1, pool.getStats().getReclaimedObjects());
+        
+        // The late release is dropped without touching the pool
+        pool.release(leaked);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getStats().getTotalReleases());
+        pool.release(replacement);
+        assertEquals(1, pool.getIdleCount());
+    }
+}
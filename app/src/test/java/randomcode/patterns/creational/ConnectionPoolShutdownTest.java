@@ -0,0 +1,89 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolShutdownTest {
+    
+    @Test void plainShutdownClosesLoansOnlyWhenReleased() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(2).build();
+        TestResource borrowed = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource idle = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(idle);
+        
+        pool.shutdown();
+        assertTrue(pool.isShutdown());
+        assertTrue(idle.isClosed());
+        assertFalse(borrowed.isClosed(), "a borrowed object must not be closed under its borrower");
+        assertThrows(IllegalStateException.class, () -> pool.acquire(1, TimeUnit.SECONDS));
+        
+        pool.release(borrowed);
+        assertTrue(borrowed.isClosed());
+        assertEquals(0, pool.getCreatedCount());
+    }
+    
+    @Test void timedShutdownWaitsForLoansToComeBack() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(2).build();
+        TestResource borrowed = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> {
+            sleep(50);
+            pool.release(borrowed);
+        });
+        
+        assertTrue(pool.shutdown(2, TimeUnit.SECONDS));
+        assertEquals(1, borrowed.closes.get());
+        assertEquals(0, pool.getCreatedCount());
+    }
+    
+    @Test void timedShutdownClosesWhatIsStillOnLoanAtTheDeadline() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(2).build();
+        TestResource borrowed = pool.acquire(1, TimeUnit.SECONDS);
+        
+        long start = System.nanoTime();
+        assertFalse(pool.shutdown(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, borrowed.closes.get());
+        assertEquals(0, pool.getCreatedCount());
+        
+        // The late release is dropped: no second close, no counters touched
+        pool.release(borrowed);
+        assertEquals(1, borrowed.closes.get());
+        assertEquals(0, pool.getStats().getTotalReleases());
+    }
+    
+    @Test void timedShutdownAfterPlainShutdownBoundsOutstandingLoans() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(2).build();
+        TestResource borrowed = pool.acquire(1, TimeUnit.SECONDS);
+        
+        pool.shutdown();
+        assertFalse(borrowed.isClosed());
+        assertFalse(pool.shutdown(20, TimeUnit.MILLISECONDS));
+        assertTrue(borrowed.isClosed());
+    }
+    
+    @Test void waitersAreWokenOnShutdown() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(1).build();
+        TestResource borrowed = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture<TestResource> waiting = pool.acquireAsync(5, TimeUnit.SECONDS);
+        
+        pool.shutdown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        pool.release(borrowed);
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
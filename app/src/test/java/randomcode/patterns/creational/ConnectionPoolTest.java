@@ -0,0 +1,140 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void doubleReleaseIsRejectedWithoutLeakingCapacity() throws Exception {
+        pool = TestResource.poolBuilder(2).build();
+        TestResource first = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(first);
+        pool.release(first);
+        
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getIdleCount(), "object must be idle exactly once");
+        assertEquals(1, pool.getStats().getTotalReleases());
+        assertFalse(first.isClosed());
+        
+        // Full capacity is still there, and no object is handed to two borrowers
+        TestResource a = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource b = pool.acquire(1, TimeUnit.SECONDS);
+        assertNotNull(b);
+        assertNotSame(a, b);
+        assertEquals(2, pool.getCreatedCount());
+        assertNull(pool.acquire(50, TimeUnit.MILLISECONDS));
+    }
+    
+    @Test void repeatedDoubleReleasesDoNotShrinkThePool() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        for (int i = 0; i < 10; i++) {
+            TestResource object = pool.acquire(1, TimeUnit.SECONDS);
+            assertNotNull(object, "capacity leaked after " + i + " double releases");
+            pool.release(object);
+            pool.release(object);
+        }
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(10, pool.getStats().getTotalReleases());
+    }
+    
+    @Test void adaptiveSizingGrowsUnderLoadAndShrinksWhenIdle() throws Exception {
+        pool = TestResource.poolBuilder(8)
+            .setAdaptiveSizing(2, 20, TimeUnit.MILLISECONDS)
+            .setSizingHysteresis(1, 1)
+            .build();
+        assertEquals(2, pool.getEffectiveMaxSize());
+        
+        TestResource first = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource second = pool.acquire(1, TimeUnit.SECONDS);
+        assertTrue(TestResource.eventually(() -> pool.getEffectiveMaxSize() > 2, 2000), "fully used pool should grow");
+        assertTrue(pool.getEffectiveMaxSize() <= pool.getMaxSize());
+        
+        pool.release(first);
+        pool.release(second);
+        assertTrue(TestResource.eventually(() -> pool.getEffectiveMaxSize() == 2, 2000), "idle pool should shrink back");
+        assertTrue(pool.getStats().getResizeCount() >= 2);
+    }
+    
+    @Test void withoutAdaptiveSizingTheCeilingIsMaxSize() throws Exception {
+        pool = TestResource.poolBuilder(3).build();
+        assertEquals(3, pool.getEffectiveMaxSize());
+        Thread.sleep(50);
+        assertEquals(3, pool.getEffectiveMaxSize());
+        assertEquals(0, pool.getStats().getResizeCount());
+    }
+    
+    @Test void adaptiveSizingSettingsAreValidated() {
+        assertThrows(IllegalArgumentException.class,
+            () -> TestResource.poolBuilder(4).setAdaptiveSizing(0, 20, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class,
+            () -> TestResource.poolBuilder(4).setAdaptiveSizing(5, 20, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class,
+            () -> TestResource.poolBuilder(4).setAdaptiveSizing(2, 0, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class,
+            () -> TestResource.poolBuilder(4).setSizingHysteresis(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(4)
+            .setMinIdle(3)
+            .setAdaptiveSizing(2, 20, TimeUnit.MILLISECONDS)
+            .build());
+    }
+    
+    @Test void exhaustedAcquireGivesUpAtItsDeadline() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        
+        long start = System.nanoTime();
+        assertNull(pool.acquire(100, TimeUnit.MILLISECONDS));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis >= 100, "gave up early after " + waitedMillis + " ms");
+        assertTrue(waitedMillis < 1000, "overran the deadline: " + waitedMillis + " ms");
+        pool.release(only);
+    }
+    
+    @Test void invalidObjectsAreSkippedWithinOneAcquisition() throws Exception {
+        pool = TestResource.poolBuilder(3).setEvictionInterval(0, TimeUnit.MILLISECONDS).build();
+        TestResource first = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource second = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource third = pool.acquire(1, TimeUnit.SECONDS);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        first.valid = false;
+        second.valid = false;
+        
+        assertSame(third, pool.acquire(1, TimeUnit.SECONDS));
+        assertEquals(4, pool.getStats().getTotalAcquisitions());
+        assertEquals(2, pool.getStats().getDiscardedObjects());
+        assertEquals(2, pool.getStats().getMaxDiscardedPerAcquisition());
+        pool.release(third);
+    }
+    
+    @Test void blockedAcquireIsServedByARelease() throws Exception {
+        pool = TestResource.poolBuilder(1).build();
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.release(only);
+        });
+        
+        assertSame(only, pool.acquire(2, TimeUnit.SECONDS));
+        pool.release(only);
+    }
+}
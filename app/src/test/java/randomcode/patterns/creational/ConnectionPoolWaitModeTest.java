@@ -0,0 +1,115 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.WaitMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolWaitModeTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    private ConnectionPool<TestResource> signallingPool(int maxSize) {
+        return TestResource.poolBuilder(maxSize).setWaitMode(WaitMode.VIRTUAL_THREADS).build();
+    }
+    
+    @Test void timedOutWaitReturnsNullAtTheDeadline() throws Exception {
+        pool = signallingPool(1);
+        assertEquals(WaitMode.VIRTUAL_THREADS, pool.getWaitMode());
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        
+        long start = System.nanoTime();
+        assertNull(pool.acquire(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        pool.release(only);
+        assertSame(only, pool.acquire(1, TimeUnit.SECONDS));
+        pool.release(only);
+    }
+    
+    @Test void everyBlockedCallerIsEventuallyServed() throws Exception {
+        pool = signallingPool(2);
+        AtomicInteger served = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(32);
+        try {
+            List<CompletableFuture<Void>> callers = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                callers.add(CompletableFuture.runAsync(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        try {
+                            TestResource object = pool.acquire(10, TimeUnit.SECONDS);
+                            if (object != null) {
+                                served.incrementAndGet();
+                                pool.release(object);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }, threads));
+            }
+            CompletableFuture.allOf(callers.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdownNow();
+        }
+        
+        assertEquals(32 * 20, served.get());
+        assertTrue(pool.getCreatedCount() <= 2);
+    }
+    
+    @Test void blockedCallersFailWhenThePoolShutsDown() throws Exception {
+        pool = signallingPool(1);
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture<TestResource> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        
+        pool.shutdown();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> blocked.get(2, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        pool.release(only);
+    }
+    
+    @Test void blockedCallerRespondsToInterrupt() throws Exception {
+        pool = signallingPool(1);
+        TestResource only = pool.acquire(1, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                pool.acquire(10, TimeUnit.SECONDS);
+                interrupted.complete(false);
+            } catch (InterruptedException e) {
+                interrupted.complete(true);
+            }
+        });
+        caller.start();
+        Thread.sleep(50);
+        
+        caller.interrupt();
+        assertTrue(interrupted.get(2, TimeUnit.SECONDS));
+        pool.release(only);
+        assertEquals(1, pool.getIdleCount());
+    }
+}
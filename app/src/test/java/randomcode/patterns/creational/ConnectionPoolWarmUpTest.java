@@ -0,0 +1,65 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolWarmUpTest {
+    private ConnectionPool<TestResource> pool;
+    
+    @AfterEach void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void constructionWarmsUpToMinIdle() {
+        pool = TestResource.poolBuilder(8).setMinIdle(3).build();
+        assertEquals(3, pool.getIdleCount());
+        assertEquals(3, pool.getCreatedCount());
+    }
+    
+    @Test void borrowingBelowMinIdleIsToppedUpInTheBackground() throws Exception {
+        pool = TestResource.poolBuilder(8).setMinIdle(2).build();
+        TestResource first = pool.acquire(1, TimeUnit.SECONDS);
+        TestResource second = pool.acquire(1, TimeUnit.SECONDS);
+        
+        assertTrue(TestResource.eventually(() -> pool.getIdleCount() == 2, 2000), "idle count never refilled");
+        assertEquals(4, pool.getCreatedCount());
+        pool.release(first);
+        pool.release(second);
+    }
+    
+    @Test void maintenanceClosesIdleObjectsAboveMaxIdle() throws Exception {
+        pool = TestResource.poolBuilder(6)
+            .setMinIdle(1)
+            .setMaxIdle(2)
+            .setMaintenanceInterval(20, TimeUnit.MILLISECONDS)
+            .build();
+        List<TestResource> borrowed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            borrowed.add(pool.acquire(1, TimeUnit.SECONDS));
+        }
+        for (TestResource object : borrowed) {
+            pool.release(object);
+        }
+        
+        assertTrue(TestResource.eventually(() -> pool.getIdleCount() == 2, 2000), "surplus idle objects were kept");
+        assertEquals(2, pool.getCreatedCount());
+        assertTrue(borrowed.stream().filter(TestResource::isClosed).count() >= 3);
+    }
+    
+    @Test void idleBoundsAreValidated() {
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(4).setMinIdle(3).setMaxIdle(2).build());
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(4).setMinIdle(-1));
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(4).setMaxIdle(-1));
+        assertThrows(IllegalArgumentException.class, () -> TestResource.poolBuilder(4).setMaintenanceInterval(-1, TimeUnit.SECONDS));
+    }
+}
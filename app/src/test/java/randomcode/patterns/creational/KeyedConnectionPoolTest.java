@@ -0,0 +1,161 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.KeyedConnectionPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedConnectionPoolTest {
+    private KeyedConnectionPool<String, TestResource> keyed;
+    
+    private KeyedConnectionPool<String, TestResource> keyedPool(int maxTotal, int maxPerKey) {
+        return keyedPool(maxTotal, maxPerKey, 0, key -> new TestResource());
+    }
+    
+    private KeyedConnectionPool<String, TestResource> keyedPool(int maxTotal, int maxPerKey, int minIdlePerKey,
+            KeyedConnectionPool.KeyedPoolableFactory<String, TestResource> factory) {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.SEVERE);
+        return new KeyedConnectionPool<>(maxTotal, maxPerKey, minIdlePerKey, ConnectionPool.PoolMode.QUEUE, factory);
+    }
+    
+    @Test void perKeyAndGlobalLimitsApply() throws Exception {
+        keyed = keyedPool(3, 2);
+        TestResource a1 = keyed.acquire("a", 1, TimeUnit.SECONDS);
+        TestResource a2 = keyed.acquire("a", 1, TimeUnit.SECONDS);
+        assertNull(keyed.acquire("a", 50, TimeUnit.MILLISECONDS), "per-key cap");
+        
+        TestResource b1 = keyed.acquire("b", 1, TimeUnit.SECONDS);
+        assertNull(keyed.acquire("b", 50, TimeUnit.MILLISECONDS), "global cap");
+        assertEquals(3, keyed.getTotalCreated());
+        
+        keyed.release("a", a1);
+        keyed.release("a", a2);
+        keyed.release("b", b1);
+        assertEquals(2, keyed.getStats("a").getPoolSize());
+    }
+    
+    @Test void exhaustedKeyBorrowsIdleCapacityFromAnother() throws Exception {
+        keyed = keyedPool(2, 2);
+        TestResource a1 = keyed.acquire("a", 1, TimeUnit.SECONDS);
+        TestResource a2 = keyed.acquire("a", 1, TimeUnit.SECONDS);
+        keyed.release("a", a1);
+        keyed.release("a", a2);
+        
+        // The global budget is used up by idle objects on "a"; one is closed to make room
+        TestResource b1 = keyed.acquire("b", 1, TimeUnit.SECONDS);
+        assertNotNull(b1);
+        assertEquals(1, keyed.getStats("a").getCreatedObjects());
+        assertEquals(2, keyed.getTotalCreated());
+        keyed.release("b", b1);
+    }
+    
+    @Test void slowWarmUpDoesNotBlockOtherKeysInTheSameBin() throws Exception {
+        CountDownLatch warmUp = new CountDownLatch(1);
+        keyed = keyedPool(4, 2, 1, key -> {
+            if (key.equals("Aa")) {
+                try {
+                    warmUp.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new TestResource();
+        });
+        // "Aa" and "BB" share a hash code, so a map bin lock held for one stalls the other
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    keyed.acquire("Aa", 5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread.sleep(50);
+            
+            TestResource other = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return keyed.acquire("BB", 1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }).get(1, TimeUnit.SECONDS);
+            assertNotNull(other);
+            keyed.release("BB", other);
+        } finally {
+            warmUp.countDown();
+        }
+    }
+    
+    @Test void racingFirstUsesOfAKeyBuildOnePool() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        keyed = keyedPool(8, 4, 2, key -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created.incrementAndGet();
+            return new TestResource();
+        });
+        CountDownLatch start = new CountDownLatch(1);
+        CompletableFuture<?>[] firstUses = new CompletableFuture<?>[4];
+        for (int i = 0; i < firstUses.length; i++) {
+            firstUses[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                    keyed.release("k", keyed.acquire("k", 1, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        CompletableFuture.allOf(firstUses).get(5, TimeUnit.SECONDS);
+        
+        assertEquals(1, keyed.getKeys().size());
+        // A pool per racer would have warmed two objects each
+        assertTrue(created.get() <= 4, "only one pool may be warmed for the key");
+        assertEquals(keyed.getStats("k").getCreatedObjects(), keyed.getTotalCreated());
+    }
+    
+    @AfterEach void shutdownPool() {
+        if (keyed != null) {
+            keyed.shutdown();
+        }
+    }
+    
+    @Test void timedShutdownGivesEveryKeyTheWholeDeadline() throws Exception {
+        keyed = keyedPool(4, 2);
+        // "a" is drained first and never comes back; "b" comes back well before the deadline
+        TestResource stuck = keyed.acquire("a");
+        TestResource returning = keyed.acquire("b");
+        CompletableFuture<Boolean> closedOnRelease = CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            keyed.release("b", returning);
+            return returning.isClosed();
+        });
+        
+        assertFalse(keyed.shutdown(400, TimeUnit.MILLISECONDS));
+        assertTrue(closedOnRelease.get(1, TimeUnit.SECONDS), "key b should already be draining when its loan returns");
+        assertEquals(1, keyed.getStats("b").getTotalReleases());
+        assertEquals(1, returning.closes.get());
+        assertTrue(stuck.isClosed());
+        assertEquals(0, keyed.getTotalCreated());
+    }
+}
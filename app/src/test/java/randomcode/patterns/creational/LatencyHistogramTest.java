@@ -0,0 +1,97 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.LatencyStats;
+import randomcode.patterns.creational.ObjectPoolPattern.HistogramSnapshot;
+import randomcode.patterns.creational.ObjectPoolPattern.LatencyHistogram;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    @Test void emptyHistogramReportsZeros() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0.0, snapshot.getMean());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getP50());
+        assertEquals(0, snapshot.getP999());
+    }
+    
+    @Test void percentilesStayWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500_500.0, snapshot.getMean(), 1e-6);
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(500_000, snapshot.getP50(), 500_000 * 0.04);
+        assertEquals(990_000, snapshot.getP99(), 990_000 * 0.04);
+        assertTrue(snapshot.getP999() <= snapshot.getMax());
+        assertTrue(snapshot.getP50() <= snapshot.getP99() && snapshot.getP99() <= snapshot.getP999());
+    }
+    
+    @Test void smallValuesAreExactAndExtremesAreRecordable() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(7);
+        assertEquals(7, histogram.snapshot().getP50());
+        
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(3, snapshot.getCount());
+        assertEquals(Long.MAX_VALUE, snapshot.getMax());
+        assertEquals(Long.MAX_VALUE, snapshot.getP999());
+    }
+    
+    @Test void poolRecordsWaitHoldAndCreationTimes() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(2).build();
+        try {
+            TestResource object = pool.acquire(1, TimeUnit.SECONDS);
+            Thread.sleep(20);
+            pool.release(object);
+            pool.release(pool.acquire(1, TimeUnit.SECONDS));
+            
+            LatencyStats stats = pool.getLatencyStats();
+            assertEquals(2, stats.getAcquireWait().getCount());
+            assertEquals(2, stats.getHoldTime().getCount());
+            assertEquals(1, stats.getCreationTime().getCount());
+            assertTrue(stats.getHoldTime().getMax() >= TimeUnit.MILLISECONDS.toNanos(20));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void jmxViewIsRegisteredOnlyWhenEnabledAndRemovedOnShutdown() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("randomcode.patterns:type=ConnectionPool,name=" + ObjectName.quote("jmx-test"));
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(2).setName("jmx-test").setJmxEnabled(true).build();
+        try {
+            pool.release(pool.acquire(1, TimeUnit.SECONDS));
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "TotalAcquisitions"));
+            assertEquals(2, server.getAttribute(name, "MaxPoolSize"));
+        } finally {
+            pool.shutdown();
+        }
+        assertFalse(server.isRegistered(name));
+        
+        ConnectionPool<TestResource> quiet = TestResource.poolBuilder(2).setName("jmx-test").build();
+        try {
+            assertFalse(server.isRegistered(name));
+        } finally {
+            quiet.shutdown();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.MarketConnection;
+import randomcode.patterns.creational.ObjectPoolPattern.MarketQuote;
+import randomcode.patterns.creational.ObjectPoolPattern.TradeAck;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketConnectionTest {
+    
+    private ExecutorService callbacks;
+    private MarketConnection connection;
+    
+    @BeforeEach
+    void setUp() {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.SEVERE);
+        callbacks = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "ack-callback");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connection = new MarketConnection("market-api.test", 2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        callbacks.shutdownNow();
+    }
+    
+    @Test void ackIsCompletedOnTheSuppliedExecutor() throws Exception {
+        AtomicReference<String> completedOn = new AtomicReference<>();
+        TradeAck ack = connection.submitTrade("AAPL", 10, 150.0, 1, TimeUnit.SECONDS, callbacks)
+            .thenApply(value -> {
+                completedOn.set(Thread.currentThread().getName());
+                return value;
+            })
+            .get(1, TimeUnit.SECONDS);
+        
+        assertEquals("AAPL", ack.getSymbol());
+        assertEquals(1, ack.getOrderId());
+        assertEquals("ack-callback", completedOn.get());
+        assertEquals(0, connection.getOutstandingTrades());
+    }
+    
+    @Test void slowCallbackDoesNotHoldUpOtherAcks() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        CompletableFuture<Void> slow = connection.submitTrade("AAPL", 10, 150.0, 1, TimeUnit.SECONDS, callbacks)
+            .thenRun(() -> {
+                entered.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        
+        try {
+            // The venue timer is free while the first callback blocks
+            TradeAck second = connection.submitTrade("MSFT", 5, 300.0, 1, TimeUnit.SECONDS, callbacks)
+                .get(1, TimeUnit.SECONDS);
+            assertEquals(2, second.getOrderId());
+            assertFalse(slow.isDone());
+        } finally {
+            unblock.countDown();
+        }
+        slow.get(1, TimeUnit.SECONDS);
+    }
+    
+    @Test void fullOrderWindowRejectsAfterTheTimeout() throws Exception {
+        CompletableFuture<TradeAck> first = connection.submitTrade("AAPL", 1, 1.0, 1, TimeUnit.SECONDS, callbacks);
+        CompletableFuture<TradeAck> second = connection.submitTrade("AAPL", 1, 1.0, 1, TimeUnit.SECONDS, callbacks);
+        CompletableFuture<TradeAck> rejected = connection.submitTrade("AAPL", 1, 1.0, 0, TimeUnit.MILLISECONDS, callbacks);
+        
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        CompletableFuture.allOf(first, second).get(1, TimeUnit.SECONDS);
+        assertEquals(0, connection.getOutstandingTrades());
+    }
+    
+    @Test void rejectingExecutorFailsTheAckAndFreesTheWindow() throws Exception {
+        callbacks.shutdown();
+        CompletableFuture<TradeAck> ack = connection.submitTrade("AAPL", 1, 1.0, 1, TimeUnit.SECONDS, callbacks);
+        
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> ack.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        assertEquals(0, connection.getOutstandingTrades());
+    }
+    
+    @Test void batchFetchPipelinesSymbolsAndKeepsRequestOrder() {
+        List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < 2 * MarketConnection.MAX_PIPELINE_DEPTH + 10; i++) {
+            symbols.add("SYM" + i);
+        }
+        
+        Map<String, MarketQuote> quotes = connection.fetchMarketData(symbols);
+        assertEquals(symbols, new ArrayList<>(quotes.keySet()));
+        assertEquals("SYM7", quotes.get("SYM7").getSymbol());
+        // One use per round trip of up to MAX_PIPELINE_DEPTH symbols
+        assertEquals(3, connection.getUsageCount());
+    }
+    
+    @Test void watchlistIsSplitAcrossPooledConnections() {
+        ConnectionPool<MarketConnection> pool = new ConnectionPool.Builder<MarketConnection>(4,
+            () -> new MarketConnection("market-api.test")).setMinIdle(0).build();
+        try {
+            List<String> symbols = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                symbols.add("SYM" + i);
+            }
+            
+            Map<String, MarketQuote> quotes = ObjectPoolPattern.fetchWatchlist(pool, symbols, 4, callbacks);
+            assertEquals(40, quotes.size());
+            assertTrue(quotes.keySet().containsAll(symbols));
+            assertTrue(pool.getCreatedCount() >= 2, "watchlist was fetched over a single connection");
+            assertEquals(pool.getCreatedCount(), pool.getIdleCount());
+            assertThrows(IllegalArgumentException.class, () -> ObjectPoolPattern.fetchWatchlist(pool, symbols, 0, callbacks));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void usageAndTimestampsAreTrackedAsPrimitives() throws Exception {
+        long createdAt = connection.getCreatedAtMillis();
+        assertEquals(createdAt, connection.getLastUsedMillis());
+        assertEquals(0, connection.getUsageCount());
+        
+        Thread.sleep(30);
+        connection.fetchMarketData("AAPL");
+        connection.executeTrade("AAPL", 10, 150.0);
+        assertEquals(2, connection.getUsageCount());
+        assertTrue(connection.getLastUsedMillis() > createdAt);
+        assertEquals(createdAt, connection.getCreatedAtMillis());
+        assertEquals(connection.getLastUsedMillis(),
+            connection.getLastUsed().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+    
+    @Test void connectionWearsOutAfterItsUseLimit() {
+        assertTrue(connection.isValid());
+        for (int i = 0; i < 999; i++) {
+            connection.executeTrade("AAPL", 1, 150.0);
+        }
+        assertTrue(connection.isValid());
+        connection.executeTrade("AAPL", 1, 150.0);
+        assertFalse(connection.isValid());
+        
+        connection.close();
+        assertFalse(connection.isOpen());
+    }
+}
@@ -0,0 +1,123 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import randomcode.patterns.creational.BuilderPattern.MortgageApplication;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledBuffer;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledCipher;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledDigest;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledMortgageBuilder;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledResources;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledResourcesTest {
+    
+    private static final byte[] ORDER = "BUY 100 AAPL @ 150.00".getBytes(StandardCharsets.US_ASCII);
+    
+    @BeforeEach
+    void quietLogging() {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.SEVERE);
+    }
+    
+    @Test void bufferIsClearedForTheNextBorrower() throws Exception {
+        ConnectionPool<PooledBuffer> pool = PooledResources.buffers(1, 64, false);
+        try {
+            PooledBuffer first = pool.acquire(1, TimeUnit.SECONDS);
+            first.buffer().put(ORDER).limit(ORDER.length);
+            pool.release(first);
+            
+            PooledBuffer second = pool.acquire(1, TimeUnit.SECONDS);
+            assertSame(first, second);
+            assertEquals(0, second.buffer().position());
+            assertEquals(64, second.buffer().limit());
+            pool.release(second);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void digestDiscardsTheLastBorrowersPartialInput() throws Exception {
+        ConnectionPool<PooledDigest> pool = PooledResources.digests(1, "SHA-256");
+        try {
+            PooledDigest first = pool.acquire(1, TimeUnit.SECONDS);
+            first.digest().update(ORDER);
+            pool.release(first);
+            
+            byte[] pooled = PooledResources.withPooled(pool, digest -> digest.digest().digest(ORDER));
+            assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(ORDER), pooled);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void cipherMustBeInitialisedAgainAfterEveryBorrow() throws Exception {
+        SecretKeySpec key = new SecretKeySpec(new byte[16], "AES");
+        IvParameterSpec iv = new IvParameterSpec(new byte[16]);
+        ConnectionPool<PooledCipher> pool = PooledResources.ciphers(1, "AES/CBC/PKCS5Padding");
+        try {
+            PooledCipher first = pool.acquire(1, TimeUnit.SECONDS);
+            byte[] encrypted = first.init(Cipher.ENCRYPT_MODE, key, iv).doFinal(ORDER);
+            assertNotNull(first.cipher());
+            pool.release(first);
+            
+            PooledCipher second = pool.acquire(1, TimeUnit.SECONDS);
+            assertSame(first, second);
+            assertThrows(IllegalStateException.class, second::cipher);
+            assertArrayEquals(ORDER, second.init(Cipher.DECRYPT_MODE, key, iv).doFinal(encrypted));
+            pool.release(second);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void mortgageBuilderStartsFromDefaults() throws Exception {
+        ConnectionPool<PooledMortgageBuilder> pool = PooledResources.mortgageBuilders(1);
+        try {
+            PooledResources.withPooled(pool, builder -> builder.start("John Smith", 350_000)
+                .setAnnualIncome(120_000)
+                .setCreditScore(740)
+                .addDocument("Pay stub")
+                .build());
+            
+            MortgageApplication next = PooledResources.withPooled(pool, builder -> builder.start("Jane Doe", 200_000).build());
+            assertEquals("Jane Doe", next.getApplicantName());
+            assertEquals(200_000, next.getRequestedAmount());
+            assertEquals(0.0, next.getAnnualIncome());
+            assertEquals(300, next.getCreditScore());
+            assertTrue(next.getDocuments().isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void withPooledReleasesWhenTheActionThrows() throws Exception {
+        ConnectionPool<PooledBuffer> pool = PooledResources.buffers(1, 16, false);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> PooledResources.withPooled(pool, buffer -> {
+                throw new IllegalArgumentException("boom");
+            }));
+            assertEquals(1, pool.getIdleCount());
+            assertNotNull(PooledResources.withPooled(pool, PooledBuffer::buffer));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test void unknownAlgorithmsFailOnTheCallingThread() {
+        assertThrows(IllegalArgumentException.class, () -> PooledResources.digests(1, "NO-SUCH-DIGEST"));
+        assertThrows(IllegalArgumentException.class, () -> PooledResources.ciphers(1, "NoSuchCipher/ECB/NoPadding"));
+    }
+}
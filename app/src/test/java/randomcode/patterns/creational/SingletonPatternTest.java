@@ -0,0 +1,294 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.SingletonPattern.PricedRate;
+import randomcode.patterns.creational.SingletonPattern.RateChangeEvent;
+import randomcode.patterns.creational.SingletonPattern.RateSnapshot;
+import randomcode.patterns.creational.SingletonPattern.RateSubscription;
+import randomcode.patterns.creational.SingletonPattern.RateTable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingletonPatternTest {
+    private static final double EPSILON = 1e-12;
+    
+    private final SingletonPattern rates = SingletonPattern.getInstance();
+    
+    // The configuration is process-wide; every test starts from the defaults
+    @BeforeEach void resetConfiguration() {
+        Logger.getLogger(SingletonPattern.class.getName()).setLevel(Level.WARNING);
+        rates.unlockRates();
+        rates.setBaseInterestRate(0.05);
+    }
+    
+    private RateTable awaitCurrentTable() throws InterruptedException {
+        long version = rates.getSnapshot().getVersion();
+        assertTrue(TestResource.eventually(() -> rates.getRateTable().getVersion() == version, 2000),
+            "rate table never caught up with version " + version);
+        return rates.getRateTable();
+    }
+    
+    @Test void rateTablePrecomputesEveryTierProductAndTerm() throws Exception {
+        rates.configureRateTable(new double[] {1.0, 1.5}, new double[] {0.0, 0.01, -0.005}, new double[] {0.0, 0.002});
+        RateTable table = awaitCurrentTable();
+        
+        assertEquals(2, table.getTierCount());
+        assertEquals(3, table.getProductCount());
+        assertEquals(2, table.getTermCount());
+        assertEquals(0.05 * 1.5 - 0.005 + 0.002, table.rate(1, 2, 1), EPSILON);
+        assertEquals(0.05, table.rate(0, 0, 0), EPSILON);
+        assertThrows(IndexOutOfBoundsException.class, () -> table.rate(2, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.rate(0, 0, -1));
+        
+        double[] out = new double[3];
+        table.rates(new int[] {1, 0, 1}, 1, 0, out);
+        assertArrayEquals(new double[] {0.085, 0.06, 0.085}, out, EPSILON);
+        table.rates(new int[] {0, 1}, new int[] {2, 0}, new int[] {1, 1}, out);
+        assertEquals(0.047, out[0], EPSILON);
+        assertEquals(0.077, out[1], EPSILON);
+        assertThrows(IllegalArgumentException.class, () -> table.rates(new int[] {0, 0}, 0, 0, new double[1]));
+    }
+    
+    @Test void rateTableIsRebuiltAfterBaseRateChanges() throws Exception {
+        rates.configureRateTable(new double[] {1.0, 2.0}, new double[] {0.0}, new double[] {0.0});
+        RateTable before = awaitCurrentTable();
+        
+        for (int i = 1; i <= 100; i++) {
+            rates.setBaseInterestRate(0.05 + i * 0.0001);
+        }
+        RateTable after = awaitCurrentTable();
+        assertNotSame(before, after);
+        assertEquals(0.06, after.getBaseInterestRate(), EPSILON);
+        assertEquals(0.12, after.rate(1, 0, 0), EPSILON);
+        // The table pinned earlier is unchanged
+        assertEquals(0.10, before.rate(1, 0, 0), EPSILON);
+    }
+    
+    @Test void rateTableVersionKeepsUpWithLockChanges() throws Exception {
+        rates.configureRateTable(new double[] {1.0}, new double[] {0.0}, new double[] {0.0});
+        RateTable before = awaitCurrentTable();
+        
+        rates.lockRates();
+        rates.unlockRates();
+        RateTable after = awaitCurrentTable();
+        assertEquals(rates.getSnapshot().getVersion(), after.getVersion());
+        assertEquals(before.rate(0, 0, 0), after.rate(0, 0, 0), EPSILON);
+    }
+    
+    @Test void rateTableRejectsEmptyDimensionsAndNegativeMultipliers() {
+        assertThrows(IllegalArgumentException.class,
+            () -> rates.configureRateTable(new double[0], new double[] {0.0}, new double[] {0.0}));
+        assertThrows(IllegalArgumentException.class,
+            () -> rates.configureRateTable(new double[] {-1.0}, new double[] {0.0}, new double[] {0.0}));
+    }
+    
+    @Test void bulkPricingMatchesPerLoanPricingForBothBookLayouts() {
+        RateSnapshot snapshot = rates.getSnapshot();
+        int loans = SingletonPattern.PARALLEL_PRICING_THRESHOLD + 12_345;
+        boolean[] highRisk = new boolean[loans];
+        byte[] riskClass = new byte[loans];
+        for (int i = 0; i < loans; i++) {
+            highRisk[i] = i % 3 == 0;
+            riskClass[i] = (byte) (i % 3 == 0 ? 1 + i % 5 : 0);
+        }
+        
+        double[] sequential = new double[loans];
+        double[] parallel = new double[loans];
+        double[] byClass = new double[loans];
+        double[] byClassParallel = new double[loans];
+        snapshot.calculateEffectiveRates(highRisk, sequential);
+        snapshot.calculateEffectiveRatesParallel(highRisk, parallel);
+        snapshot.calculateEffectiveRates(riskClass, byClass);
+        snapshot.calculateEffectiveRatesParallel(riskClass, byClassParallel);
+        
+        for (int i = 0; i < loans; i++) {
+            assertEquals(snapshot.calculateEffectiveRate(highRisk[i]), sequential[i], EPSILON);
+        }
+        assertArrayEquals(sequential, parallel, 0);
+        assertArrayEquals(sequential, byClass, 0);
+        assertArrayEquals(sequential, byClassParallel, 0);
+    }
+    
+    @Test void bulkPricingRejectsShortRateBuffers() {
+        RateSnapshot snapshot = rates.getSnapshot();
+        assertThrows(IllegalArgumentException.class,
+            () -> snapshot.calculateEffectiveRates(new boolean[4], new double[3]));
+        assertThrows(IllegalArgumentException.class,
+            () -> snapshot.calculateEffectiveRatesParallel(new byte[4], new double[3]));
+        assertThrows(IllegalArgumentException.class,
+            () -> rates.priceBook(new byte[SingletonPattern.PARALLEL_PRICING_THRESHOLD], new double[1]));
+    }
+    
+    @Test void priceBookStampsTheVersionItPricedAt() {
+        rates.setBaseInterestRate(0.04);
+        long version = rates.getSnapshot().getVersion();
+        double[] out = new double[2];
+        
+        assertEquals(version, rates.priceBook(new boolean[] {false, true}, out));
+        assertArrayEquals(new double[] {0.04, 0.048}, out, EPSILON);
+        assertEquals(version, rates.priceBook(new byte[] {2, 0}, out));
+        assertArrayEquals(new double[] {0.048, 0.04}, out, EPSILON);
+    }
+    
+    @Test void everyChangePublishesTheNextVersionAndPinnedSnapshotsStayPut() {
+        RateSnapshot pinned = rates.getSnapshot();
+        
+        rates.setBaseInterestRate(0.07);
+        RateSnapshot rateChange = rates.getSnapshot();
+        assertEquals(pinned.getVersion() + 1, rateChange.getVersion());
+        rates.lockRates();
+        RateSnapshot locked = rates.getSnapshot();
+        assertEquals(rateChange.getVersion() + 1, locked.getVersion());
+        assertTrue(locked.isRateLocked());
+        // Locking an already locked configuration is not a change
+        rates.lockRates();
+        assertSame(locked, rates.getSnapshot());
+        
+        assertEquals(0.05, pinned.getBaseInterestRate(), EPSILON);
+        assertFalse(pinned.isRateLocked());
+    }
+    
+    @Test void pricedRatesCarryTheVersionOfTheirSnapshot() {
+        RateSnapshot snapshot = rates.getSnapshot();
+        PricedRate high = snapshot.price(true);
+        PricedRate standard = snapshot.price(false);
+        rates.setBaseInterestRate(0.06);
+        
+        assertEquals(0.05 * snapshot.getCreditRiskMultiplier(), high.getEffectiveRate(), EPSILON);
+        assertTrue(high.isHighRisk());
+        assertEquals(0.05, standard.getEffectiveRate(), EPSILON);
+        assertEquals(snapshot.getVersion(), high.getVersion());
+        assertEquals(snapshot.getVersion(), standard.getVersion());
+        assertEquals(snapshot.getVersion() + 1, rates.getSnapshot().price(true).getVersion());
+    }
+    
+    @Test void lockedRatesRejectChangesAndNegativeRatesAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> rates.setBaseInterestRate(-0.01));
+        rates.lockRates();
+        assertTrue(rates.isRateLocked());
+        RateSnapshot locked = rates.getSnapshot();
+        
+        assertThrows(IllegalStateException.class, () -> rates.setBaseInterestRate(0.06));
+        assertSame(locked, rates.getSnapshot());
+        assertEquals(0.05, rates.getBaseInterestRate(), EPSILON);
+        rates.unlockRates();
+        rates.setBaseInterestRate(0.06);
+        assertEquals(0.06, rates.getBaseInterestRate(), EPSILON);
+    }
+    
+    @Test void noRateChangeLandsAfterTheLock() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> setters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            double rate = 0.06 + i * 0.01;
+            setters.add(CompletableFuture.supplyAsync(() -> {
+                int changes = 0;
+                try {
+                    start.await();
+                    while (true) {
+                        rates.setBaseInterestRate(rate);
+                        changes++;
+                    }
+                } catch (IllegalStateException e) {
+                    return changes;
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        start.countDown();
+        Thread.sleep(20);
+        
+        rates.lockRates();
+        RateSnapshot locked = rates.getSnapshot();
+        for (CompletableFuture<Integer> setter : setters) {
+            setter.get(2, TimeUnit.SECONDS);
+        }
+        assertSame(locked, rates.getSnapshot());
+        assertTrue(locked.isRateLocked());
+    }
+    
+    @Test void subscribersAreToldTheOldAndNewRateOnTheDispatcherThread() throws Exception {
+        BlockingQueue<RateChangeEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        try (RateSubscription subscription = rates.subscribe(event -> {
+            threads.add(Thread.currentThread().getName());
+            events.add(event);
+        })) {
+            rates.setBaseInterestRate(0.06);
+            RateChangeEvent event = events.poll(2, TimeUnit.SECONDS);
+            assertNotNull(event, "no rate change was delivered");
+            assertEquals(0.05, event.getOldRate(), EPSILON);
+            assertEquals(0.06, event.getNewRate(), EPSILON);
+            assertEquals(rates.getSnapshot().getVersion(), event.getVersion());
+            assertTrue(threads.take().startsWith("rate-change-dispatcher-"));
+            
+            // Lock changes bump the version but leave the rate alone
+            rates.lockRates();
+            rates.unlockRates();
+            assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+    
+    @Test void changesMadeWhileASubscriberIsBusyAreCoalesced() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        BlockingQueue<RateChangeEvent> events = new LinkedBlockingQueue<>();
+        try (RateSubscription subscription = rates.subscribe(event -> {
+            events.add(event);
+            entered.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        })) {
+            rates.setBaseInterestRate(0.06);
+            assertTrue(entered.await(2, TimeUnit.SECONDS));
+            rates.setBaseInterestRate(0.07);
+            rates.setBaseInterestRate(0.08);
+            rates.setBaseInterestRate(0.09);
+            proceed.countDown();
+            
+            assertEquals(0.06, events.take().getNewRate(), EPSILON);
+            RateChangeEvent coalesced = events.poll(2, TimeUnit.SECONDS);
+            assertNotNull(coalesced);
+            assertEquals(0.06, coalesced.getOldRate(), EPSILON);
+            assertEquals(0.09, coalesced.getNewRate(), EPSILON);
+            assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+    
+    @Test void closedSubscriptionsStopReceivingAndFailingListenersAreIsolated() throws Exception {
+        Logger.getLogger(SingletonPattern.class.getName()).setLevel(Level.OFF);
+        BlockingQueue<RateChangeEvent> closedEvents = new LinkedBlockingQueue<>();
+        BlockingQueue<RateChangeEvent> events = new LinkedBlockingQueue<>();
+        RateSubscription closed = rates.subscribe(closedEvents::add);
+        closed.close();
+        assertFalse(closed.isActive());
+        
+        try (RateSubscription failing = rates.subscribe(event -> {
+                throw new IllegalStateException("listener failure");
+            });
+            RateSubscription healthy = rates.subscribe(events::add)) {
+            rates.setBaseInterestRate(0.06);
+            assertNotNull(events.poll(2, TimeUnit.SECONDS), "a failing listener blocked delivery");
+            rates.setBaseInterestRate(0.07);
+            assertEquals(0.07, events.poll(2, TimeUnit.SECONDS).getNewRate(), EPSILON);
+            assertTrue(failing.isActive());
+        }
+        assertTrue(closedEvents.isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.StatField;
+import randomcode.patterns.creational.ObjectPoolPattern.StatsExporter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsExporterTest {
+    
+    /**
+     * In-memory channel collecting everything the exporter writes.
+     */
+    private static final class CapturingChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private volatile boolean open = true;
+        
+        @Override
+        public synchronized int write(ByteBuffer source) {
+            int length = source.remaining();
+            byte[] bytes = new byte[length];
+            source.get(bytes);
+            written.write(bytes, 0, length);
+            return length;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+        
+        @Override
+        public void close() {
+            open = false;
+        }
+        
+        synchronized String[] lines() {
+            return new String(written.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        }
+    }
+    
+    private static String encode(long value) {
+        byte[] digits = new byte[20];
+        int start = StatsExporter.encodeLong(value, digits);
+        return new String(digits, start, digits.length - start, StandardCharsets.US_ASCII);
+    }
+    
+    @Test void encodesTheFullLongRange() {
+        long[] values = {0, 7, -7, 10, -10, 1234567890L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        for (long value : values) {
+            assertEquals(Long.toString(value), encode(value));
+        }
+    }
+    
+    @Test void writesHeaderThenOneLinePerPoolInFieldOrder() throws Exception {
+        ConnectionPool<TestResource> pool = TestResource.poolBuilder(3).setName("test pool").build();
+        CapturingChannel channel = new CapturingChannel();
+        StatsExporter exporter = new StatsExporter(channel, 10, TimeUnit.MILLISECONDS).register(pool);
+        try {
+            TestResource borrowed = pool.acquire(1, TimeUnit.SECONDS);
+            exporter.start();
+            assertTrue(TestResource.eventually(() -> channel.lines().length >= 2, 2000));
+            pool.release(borrowed);
+        } finally {
+            exporter.close();
+            pool.shutdown();
+        }
+        assertFalse(channel.isOpen());
+        
+        String[] lines = channel.lines();
+        String[] header = lines[0].split(" ");
+        assertEquals("#", header[0]);
+        assertEquals("epochMillis", header[1]);
+        assertEquals("pool", header[2]);
+        assertEquals(StatField.COUNT + 3, header.length);
+        assertEquals("circuit_state", header[header.length - 1]);
+        
+        String[] line = lines[1].split(" ");
+        assertEquals(StatField.COUNT + 2, line.length);
+        assertTrue(Long.parseLong(line[0]) > 0);
+        assertEquals("test_pool", line[1]);
+        assertEquals("3", line[2 + StatField.MAX_SIZE.ordinal()]);
+        assertEquals("1", line[2 + StatField.CREATED.ordinal()]);
+        assertEquals("1", line[2 + StatField.ACTIVE.ordinal()]);
+        assertEquals("1", line[2 + StatField.ACQUISITIONS.ordinal()]);
+    }
+    
+    @Test void unregisteredPoolsAreNoLongerExported() throws Exception {
+        ConnectionPool<TestResource> kept = TestResource.poolBuilder(1).setName("kept").build();
+        ConnectionPool<TestResource> dropped = TestResource.poolBuilder(1).setName("dropped").build();
+        CapturingChannel channel = new CapturingChannel();
+        StatsExporter exporter = new StatsExporter(channel, 10, TimeUnit.MILLISECONDS).register(kept).register(dropped);
+        try {
+            exporter.unregister(dropped);
+            exporter.start();
+            assertTrue(TestResource.eventually(() -> channel.lines().length >= 3, 2000));
+        } finally {
+            exporter.close();
+            kept.shutdown();
+            dropped.shutdown();
+        }
+        
+        String[] lines = channel.lines();
+        for (int i = 1; i < lines.length; i++) {
+            assertEquals("kept", lines[i].split(" ")[1]);
+        }
+    }
+    
+    @Test void startTwiceAndNonPositiveIntervalAreRejected() throws Exception {
+        CapturingChannel channel = new CapturingChannel();
+        assertThrows(IllegalArgumentException.class, () -> new StatsExporter(channel, 0, TimeUnit.SECONDS));
+        StatsExporter exporter = new StatsExporter(channel, 1, TimeUnit.SECONDS);
+        try {
+            exporter.start();
+            assertThrows(IllegalStateException.class, exporter::start);
+        } finally {
+            exporter.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package randomcode.patterns.creational;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.Poolable;
+
+/**
+ * Minimal poolable for pool tests: no I/O, and every state change is observable.
+ */
+class TestResource implements Poolable {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    
+    final int id = SEQUENCE.incrementAndGet();
+    final AtomicInteger resets = new AtomicInteger();
+    final AtomicInteger closes = new AtomicInteger();
+    volatile boolean valid = true;
+    
+    /**
+     * Pool of test resources with no warm objects and the pool's logging turned down.
+     */
+    static ConnectionPool.Builder<TestResource> poolBuilder(int maxSize) {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.SEVERE);
+        return new ConnectionPool.Builder<TestResource>(maxSize, TestResource::new).setMinIdle(0);
+    }
+    
+    /**
+     * Poll a condition that background pool threads make true, for up to {@code timeoutMillis}.
+     */
+    static boolean eventually(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+    
+    @Override
+    public void reset() {
+        resets.incrementAndGet();
+    }
+    
+    @Override
+    public boolean isValid() {
+        return valid && closes.get() == 0;
+    }
+    
+    @Override
+    public void close() {
+        closes.incrementAndGet();
+    }
+    
+    @Override
+    public int getUsageCount() {
+        return resets.get();
+    }
+    
+    boolean isClosed() {
+        return closes.get() > 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "TestResource-" + id;
+    }
+}
@@ -0,0 +1,77 @@
+package randomcode.patterns.creational;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.MarketConnection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPoolLoadTest {
+    private static final int TRADERS = 100_000;
+    private static final int CONNECTIONS = 50;
+    
+    @Test void hundredThousandVirtualThreadsShareFiftyConnections() throws Exception {
+        Logger.getLogger(ObjectPoolPattern.class.getName()).setLevel(Level.WARNING);
+        
+        ConnectionPool<MarketConnection> pool = new ConnectionPool.Builder<MarketConnection>(
+                CONNECTIONS, () -> new MarketConnection("vt-load-endpoint"))
+            .setName("vt-load")
+            .setWaitMode(ConnectionPool.WaitMode.VIRTUAL_THREADS)
+            .build();
+        
+        AtomicInteger served = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        
+        // -Djdk.tracePinnedThreads prints to System.out whenever a carrier gets pinned
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try (ExecutorService traders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < TRADERS; i++) {
+                traders.submit(() -> {
+                    try {
+                        MarketConnection connection = pool.acquire(60, TimeUnit.SECONDS);
+                        try {
+                            connection.isValid();
+                            served.incrementAndGet();
+                        } finally {
+                            pool.release(connection);
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            System.setOut(originalOut);
+        }
+        
+        try {
+            assertEquals(0, failed.get(), "every trader should get a connection");
+            assertEquals(TRADERS, served.get());
+            assertTrue(pool.getCreatedCount() <= CONNECTIONS, "pool must not exceed its maximum size");
+            // Replenishment may still be finishing a creation in the background
+            long settleBy = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.getIdleCount() != pool.getCreatedCount() && System.nanoTime() < settleBy) {
+                Thread.sleep(10);
+            }
+            assertEquals(pool.getCreatedCount(), pool.getIdleCount(), "all connections should be back in the pool");
+            
+            String pinning = captured.toString(StandardCharsets.UTF_8);
+            assertFalse(pinning.contains("<== monitors"), "virtual threads were pinned:\n" + pinning);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
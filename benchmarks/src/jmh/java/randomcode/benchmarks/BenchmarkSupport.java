@@ -0,0 +1,26 @@
+package randomcode.benchmarks;
+
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared helpers for the JMH suites.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Raise the root logger to WARNING so the INFO tracing in the patterns doesn't dominate
+     * the measurement (every pattern logs through java.util.logging at INFO by default).
+     */
+    static void quietLogging() {
+        Logger root = Logger.getLogger("");
+        root.setLevel(Level.WARNING);
+        for (Handler handler : root.getHandlers()) {
+            handler.setLevel(Level.WARNING);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package randomcode.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import randomcode.patterns.creational.SingletonPattern;
+import randomcode.patterns.creational.SingletonPattern.RateSnapshot;
+import randomcode.patterns.creational.SingletonPattern.RateTable;
+
+/**
+ * Pricing a whole loan book: one {@link SingletonPattern#calculateEffectiveRate} call per loan
+ * against the bulk array loops on a pinned {@link RateSnapshot}, sequential and fork/join, and
+ * tiered lookups in a precomputed {@link RateTable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkRatePricingBenchmark {
+
+    @Param({"1000000", "16000000"})
+    public int loans;
+
+    private SingletonPattern rates;
+    private boolean[] highRisk;
+    private byte[] riskClass;
+    private int[] riskTier;
+    private double[] effectiveRates;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        rates = SingletonPattern.getInstance();
+        highRisk = new boolean[loans];
+        riskClass = new byte[loans];
+        riskTier = new int[loans];
+        effectiveRates = new double[loans];
+
+        Random random = new Random(42);
+        for (int i = 0; i < loans; i++) {
+            highRisk[i] = random.nextInt(5) == 0;
+            riskClass[i] = (byte) (highRisk[i] ? 1 : 0);
+            riskTier[i] = random.nextInt(4);
+        }
+        rates.configureRateTable(
+            new double[] {0.9, 1.0, 1.2, 1.5},
+            new double[] {0.0, 0.015},
+            new double[] {0.0, 0.0025, 0.005});
+    }
+
+    @Benchmark
+    public double[] perCall() {
+        for (int i = 0; i < loans; i++) {
+            effectiveRates[i] = rates.calculateEffectiveRate(highRisk[i]);
+        }
+        return effectiveRates;
+    }
+
+    @Benchmark
+    public double[] bulk() {
+        rates.getSnapshot().calculateEffectiveRates(highRisk, effectiveRates);
+        return effectiveRates;
+    }
+
+    @Benchmark
+    public double[] bulkRiskClass() {
+        rates.getSnapshot().calculateEffectiveRates(riskClass, effectiveRates);
+        return effectiveRates;
+    }
+
+    @Benchmark
+    public double[] tieredTable() {
+        RateTable table = rates.getRateTable();
+        table.rates(riskTier, 0, 2, effectiveRates);
+        return effectiveRates;
+    }
+
+    @Benchmark
+    public double[] bulkParallel() {
+        rates.getSnapshot().calculateEffectiveRatesParallel(highRisk, effectiveRates);
+        return effectiveRates;
+    }
+
+    @Benchmark
+    public double[] bulkRiskClassParallel() {
+        rates.getSnapshot().calculateEffectiveRatesParallel(riskClass, effectiveRates);
+        return effectiveRates;
+    }
+}
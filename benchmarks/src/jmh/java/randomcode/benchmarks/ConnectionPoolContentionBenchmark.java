@@ -0,0 +1,66 @@
+package randomcode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.PoolMode;
+import randomcode.patterns.creational.ObjectPoolPattern.MarketConnection;
+
+/**
+ * Acquire/release throughput of {@link ConnectionPool} under heavy thread contention,
+ * comparing the shared queue against the per-thread affinity mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class ConnectionPoolContentionBenchmark {
+
+    @Param({"QUEUE", "AFFINITY"})
+    public PoolMode mode;
+
+    @Param({"16", "64"})
+    public int poolSize;
+
+    private ConnectionPool<MarketConnection> pool;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        BenchmarkSupport.quietLogging();
+        pool = new ConnectionPool<>(poolSize, () -> new MarketConnection("market-api.financialdata.com"), mode);
+
+        // Create every connection up front so the measurement never pays the setup cost
+        MarketConnection[] warm = new MarketConnection[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            warm[i] = pool.acquire();
+        }
+        for (MarketConnection connection : warm) {
+            pool.release(connection);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MarketConnection acquireRelease() throws InterruptedException {
+        MarketConnection connection = pool.acquire();
+        if (connection != null) {
+            pool.release(connection);
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,122 @@
+package randomcode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool.HandoutPolicy;
+import randomcode.patterns.creational.ObjectPoolPattern.MarketConnection;
+
+/**
+ * Average {@code fetchMarketData} latency through the pool for each handout policy. The pool
+ * is larger than the number of traders, so the policy decides how many connections stay in
+ * rotation. Connections idle for longer than {@link #IDLE_EXPIRY_MILLIS} are closed by the
+ * pool's evictor, standing in for the 30 minute idle expiry, and the live and idle counts are
+ * reported as the {@code liveConnections} and {@code idleConnections} secondary results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class HandoutPolicyBenchmark {
+
+    /** Idle time after which a connection counts as expired; well under one iteration. */
+    static final long IDLE_EXPIRY_MILLIS = 1000;
+
+    /**
+     * Market connection with a short idle expiry, so connections a policy leaves out of
+     * rotation are retired within an iteration.
+     */
+    static final class ExpiringConnection extends MarketConnection {
+        ExpiringConnection() {
+            super("market-api.financialdata.com");
+        }
+
+        @Override
+        public boolean isValid() {
+            return super.isValid() && System.currentTimeMillis() - getLastUsedMillis() < IDLE_EXPIRY_MILLIS;
+        }
+    }
+
+    /**
+     * Pool gauges sampled after each call. Only the first thread records them, since
+     * event counters are summed across threads.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PoolCounters {
+        public int liveConnections;
+        public int idleConnections;
+
+        private boolean recording;
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            recording = threadParams.getThreadIndex() == 0;
+        }
+
+        void sample(ConnectionPool<?> pool) {
+            if (recording) {
+                liveConnections = pool.getCreatedCount();
+                idleConnections = pool.getIdleCount();
+            }
+        }
+    }
+
+    @Param({"FIFO", "LIFO", "LEAST_USED"})
+    public HandoutPolicy policy;
+
+    @Param({"32"})
+    public int poolSize;
+
+    private ConnectionPool<MarketConnection> pool;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        BenchmarkSupport.quietLogging();
+        pool = new ConnectionPool.Builder<MarketConnection>(poolSize, ExpiringConnection::new)
+            .setHandoutPolicy(policy)
+            .setMinIdle(0)
+            .setEvictionInterval(IDLE_EXPIRY_MILLIS / 4, TimeUnit.MILLISECONDS)
+            .build();
+
+        MarketConnection[] warm = new MarketConnection[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            warm[i] = pool.acquire();
+        }
+        for (MarketConnection connection : warm) {
+            pool.release(connection);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MarketConnection fetchMarketData(PoolCounters counters) throws InterruptedException {
+        MarketConnection connection = pool.acquire();
+        if (connection != null) {
+            try {
+                connection.fetchMarketData("AAPL");
+            } finally {
+                pool.release(connection);
+            }
+        }
+        counters.sample(pool);
+        return connection;
+    }
+}
@@ -0,0 +1,73 @@
+package randomcode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import randomcode.patterns.creational.SingletonPattern;
+import randomcode.patterns.creational.SingletonPattern.RateSnapshot;
+
+/**
+ * Read scaling of the interest rate configuration: the lock-free snapshot reads of
+ * {@link SingletonPattern} against a monitor-guarded getter, the way the configuration
+ * used to be read. Sweep the thread count to see the scaling, e.g.
+ * {@code ./gradlew :benchmarks:jmh -PjmhInclude=InterestRateReadBenchmark -PjmhThreads=8}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InterestRateReadBenchmark {
+
+    /**
+     * Baseline holding the same values behind {@code synchronized} accessors.
+     */
+    static final class SynchronizedRates {
+        private double baseInterestRate = 0.05;
+        private final double creditRiskMultiplier = 1.2;
+
+        synchronized double getBaseInterestRate() {
+            return baseInterestRate;
+        }
+
+        synchronized double calculateEffectiveRate(boolean isHighRisk) {
+            return isHighRisk ? baseInterestRate * creditRiskMultiplier : baseInterestRate;
+        }
+    }
+
+    private SingletonPattern rates;
+    private SynchronizedRates synchronizedRates;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        rates = SingletonPattern.getInstance();
+        synchronizedRates = new SynchronizedRates();
+    }
+
+    @Benchmark
+    public double snapshotBaseRate() {
+        return rates.getBaseInterestRate();
+    }
+
+    @Benchmark
+    public double synchronizedBaseRate() {
+        return synchronizedRates.getBaseInterestRate();
+    }
+
+    @Benchmark
+    public double snapshotEffectiveRate() {
+        RateSnapshot snapshot = rates.getSnapshot();
+        return snapshot.calculateEffectiveRate(true);
+    }
+
+    @Benchmark
+    public double synchronizedEffectiveRate() {
+        return synchronizedRates.calculateEffectiveRate(true);
+    }
+}
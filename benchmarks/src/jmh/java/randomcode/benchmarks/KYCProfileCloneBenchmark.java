@@ -0,0 +1,47 @@
+package randomcode.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import randomcode.patterns.creational.PrototypePattern.KYCProfile;
+
+/**
+ * Cost of {@link KYCProfile#cloneProfile()}. The payload is the number of entries in the
+ * profile's additional data map, which is deep-copied on every clone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KYCProfileCloneBenchmark {
+
+    @Param({"0", "16", "256"})
+    public int additionalEntries;
+
+    private KYCProfile template;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        template = new KYCProfile("TEMPLATE-001", "Jane Template", LocalDate.of(1985, 6, 15), "US")
+            .setDocumentInfo("Passport", "P123456789", LocalDate.now().plusYears(5))
+            .setContactInfo("1 Wall Street, New York", "+1-555-0100", "jane@example.com")
+            .verify("benchmark");
+        for (int i = 0; i < additionalEntries; i++) {
+            template.addAdditionalData("key-" + i, "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public KYCProfile cloneProfile() {
+        return template.cloneProfile();
+    }
+}
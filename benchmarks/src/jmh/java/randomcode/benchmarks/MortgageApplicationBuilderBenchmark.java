@@ -0,0 +1,53 @@
+package randomcode.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import randomcode.patterns.creational.BuilderPattern.MortgageApplication;
+
+/**
+ * Cost of assembling a {@link MortgageApplication} through its {@code Builder}, including
+ * business rule validation in {@code build()}. The payload is the number of documents attached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MortgageApplicationBuilderBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int documentCount;
+
+    private List<String> documents;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        documents = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            documents.add("Document-" + i);
+        }
+    }
+
+    @Benchmark
+    public MortgageApplication build() {
+        return new MortgageApplication.Builder("John Smith", 350_000)
+            .setAnnualIncome(120_000)
+            .setCreditHistory(true)
+            .setCreditScore(740)
+            .setEmploymentType("Full-time")
+            .setEmploymentYears(6)
+            .setDownPayment(70_000)
+            .addDocuments(documents)
+            .build();
+    }
+}
@@ -0,0 +1,166 @@
+package randomcode.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import randomcode.patterns.creational.BuilderPattern.MortgageApplication;
+import randomcode.patterns.creational.ObjectPoolPattern.ConnectionPool;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledBuffer;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledCipher;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledDigest;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledMortgageBuilder;
+import randomcode.patterns.creational.ObjectPoolPattern.PooledResources;
+
+/**
+ * Pooled versus freshly created serialization buffers, digests, ciphers and mortgage
+ * builders, each doing the same small piece of work per operation. Only the buffer
+ * benchmarks are run for each buffer size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PooledResourcesBenchmark {
+
+    private static final String DIGEST = "SHA-256";
+    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+    /**
+     * Buffer pool for the buffer benchmarks, kept apart so its size parameter does not
+     * multiply the others.
+     */
+    @State(Scope.Benchmark)
+    public static class Buffers {
+        @Param({"4096", "65536"})
+        public int bufferSize;
+
+        private ConnectionPool<PooledBuffer> pool;
+
+        @Setup
+        public void setUp() {
+            BenchmarkSupport.quietLogging();
+            pool = PooledResources.buffers(4, bufferSize, false);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    private final byte[] order = "BUY 100 AAPL @ 150.00".getBytes(StandardCharsets.US_ASCII);
+    private final SecretKeySpec key = new SecretKeySpec(new byte[16], "AES");
+    private final IvParameterSpec iv = new IvParameterSpec(new byte[16]);
+
+    private ConnectionPool<PooledDigest> digests;
+    private ConnectionPool<PooledCipher> ciphers;
+    private ConnectionPool<PooledMortgageBuilder> builders;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        digests = PooledResources.digests(4, DIGEST);
+        ciphers = PooledResources.ciphers(4, TRANSFORMATION);
+        builders = PooledResources.mortgageBuilders(4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        digests.shutdown();
+        ciphers.shutdown();
+        builders.shutdown();
+    }
+
+    @Benchmark
+    public int bufferFresh(Buffers buffers) {
+        ByteBuffer buffer = ByteBuffer.allocate(buffers.bufferSize);
+        buffer.put(order);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int bufferPooled(Buffers buffers) throws InterruptedException {
+        PooledBuffer pooled = buffers.pool.acquire();
+        try {
+            pooled.buffer().put(order);
+            return pooled.buffer().position();
+        } finally {
+            buffers.pool.release(pooled);
+        }
+    }
+
+    @Benchmark
+    public byte[] digestFresh() throws GeneralSecurityException {
+        return MessageDigest.getInstance(DIGEST).digest(order);
+    }
+
+    @Benchmark
+    public byte[] digestPooled() throws InterruptedException {
+        PooledDigest pooled = digests.acquire();
+        try {
+            return pooled.digest().digest(order);
+        } finally {
+            digests.release(pooled);
+        }
+    }
+
+    @Benchmark
+    public byte[] cipherFresh() throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+        return cipher.doFinal(order);
+    }
+
+    @Benchmark
+    public byte[] cipherPooled() throws InterruptedException, GeneralSecurityException {
+        PooledCipher pooled = ciphers.acquire();
+        try {
+            return pooled.init(Cipher.ENCRYPT_MODE, key, iv).doFinal(order);
+        } finally {
+            ciphers.release(pooled);
+        }
+    }
+
+    @Benchmark
+    public MortgageApplication mortgageBuilderFresh() {
+        return fill(new MortgageApplication.Builder("John Smith", 350_000));
+    }
+
+    @Benchmark
+    public MortgageApplication mortgageBuilderPooled() throws InterruptedException {
+        PooledMortgageBuilder pooled = builders.acquire();
+        try {
+            return fill(pooled.start("John Smith", 350_000));
+        } finally {
+            builders.release(pooled);
+        }
+    }
+
+    private static MortgageApplication fill(MortgageApplication.Builder builder) {
+        return builder
+            .setAnnualIncome(120_000)
+            .setCreditHistory(true)
+            .setCreditScore(740)
+            .setEmploymentType("Full-time")
+            .setEmploymentYears(6)
+            .setDownPayment(70_000)
+            .addDocument("Pay stub")
+            .build();
+    }
+}
@@ -0,0 +1,42 @@
+package randomcode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import randomcode.patterns.creational.FactoryMethodPattern;
+import randomcode.patterns.creational.FactoryMethodPattern.ProcessorFactory;
+import randomcode.patterns.creational.FactoryMethodPattern.TransactionProcessor;
+
+/**
+ * Cost of {@link ProcessorFactory#getProcessor(String)}. The payload is the shape of the type
+ * string, since the factory trims and lower-cases it before dispatching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProcessorFactoryBenchmark {
+
+    @Param({"credit", "wire", "  CREDIT  "})
+    public String processorType;
+
+    private ProcessorFactory factory;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        factory = new FactoryMethodPattern().new ProcessorFactory();
+    }
+
+    @Benchmark
+    public TransactionProcessor getProcessor() {
+        return factory.getProcessor(processorType);
+    }
+}